@@ -1,10 +1,14 @@
 package br.com.fiap.api.config;
 
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.filter.CharacterEncodingFilter;
 
 @Configuration
+@EnableScheduling
+@EnableConfigurationProperties(MensagensProperties.class)
 public class ApplicationConfig {
 
     @Bean
@@ -0,0 +1,17 @@
+package br.com.fiap.api.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * O interceptor de cache envolve o transacional, de modo que as invalidações
+ * só acontecem depois do commit da alteração.
+ */
+@Configuration
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+public class CacheConfig {
+
+    public static final String CACHE_MENSAGENS = "mensagens";
+
+}
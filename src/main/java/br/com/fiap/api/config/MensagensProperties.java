@@ -0,0 +1,102 @@
+package br.com.fiap.api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "mensagens")
+public class MensagensProperties {
+
+    private Timeline timeline = new Timeline();
+    private Lote lote = new Lote();
+    private Exportacao exportacao = new Exportacao();
+    private Gostei gostei = new Gostei();
+    private Ingestao ingestao = new Ingestao();
+    private ThreadsVirtuais threadsVirtuais = new ThreadsVirtuais();
+
+    @Data
+    public static class Timeline {
+        /**
+         * Quantidade de mensagens recentes mantidas em memória; zero desativa a timeline.
+         */
+        private int capacidade = 100;
+        /**
+         * Tempo após o qual as mensagens em memória são recarregadas do banco.
+         */
+        private Duration validade = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class Lote {
+        /**
+         * Quantidade máxima de mensagens aceitas em uma única requisição de lote.
+         */
+        private int tamanhoMaximo = 5000;
+    }
+
+    @Data
+    public static class Exportacao {
+        /**
+         * Quantidade de linhas trazidas do banco a cada ida ao cursor durante a exportação.
+         */
+        private int fetchSize = 1000;
+    }
+
+    @Data
+    public static class Gostei {
+        /**
+         * Intervalo entre as gravações no banco dos "gostei" acumulados em memória.
+         */
+        private Duration intervaloDeDescarga = Duration.ofSeconds(1);
+    }
+
+    @Data
+    public static class Ingestao {
+        /**
+         * Responde ao registro de mensagens com {@code 202 Accepted} e grava em segundo plano, em lotes.
+         */
+        private boolean assincrona = false;
+        /**
+         * Quantidade máxima de mensagens aguardando gravação; acima dela o registro é recusado com {@code 429}.
+         */
+        private int capacidade = 10000;
+        /**
+         * Quantidade máxima de mensagens gravadas em cada lote.
+         */
+        private int tamanhoDoLote = 500;
+        /**
+         * Intervalo entre as gravações das mensagens enfileiradas.
+         */
+        private Duration intervaloDeDescarga = Duration.ofMillis(100);
+        private Diario diario = new Diario();
+    }
+
+    @Data
+    public static class Diario {
+        /**
+         * Registra as mensagens aceitas em um diário no disco antes de responder, para que sejam gravadas
+         * mesmo após uma parada abrupta da aplicação.
+         */
+        private boolean habilitado = false;
+        /**
+         * Diretório dos dois segmentos do diário.
+         */
+        private String diretorio = "dados/ingestao";
+        /**
+         * Tamanho de cada segmento, menor que 2GB; com os dois cheios de mensagens ainda não gravadas o registro é
+         * recusado com {@code 429}.
+         */
+        private DataSize tamanhoDoSegmento = DataSize.ofMegabytes(64);
+    }
+
+    @Data
+    public static class ThreadsVirtuais {
+        /**
+         * Atende as requisições em threads virtuais; exige Java 21 ou superior (ver {@link ThreadsVirtuaisConfig}).
+         */
+        private boolean habilitadas = false;
+    }
+}
@@ -0,0 +1,44 @@
+package br.com.fiap.api.config;
+
+import br.com.fiap.api.model.MensagemCursor;
+import io.micrometer.core.aop.CountedAspect;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Habilita {@code @Timed} e {@code @Counted} nos serviços. As métricas são identificadas pela tag {@code operacao},
+ * com o nome do método; a listagem por cursor é sobrecarga da listagem paginada e recebe nome próprio.
+ * <p>
+ * Os aspectos ficam dentro do interceptor de cache, então buscas atendidas pelo cache não são cronometradas;
+ * elas aparecem em {@code cache.gets} e em {@code http.server.requests}.
+ */
+@Configuration
+public class MetricsConfig {
+
+    public static final String METRICA_SERVICO = "mensagens.servico";
+    public static final String METRICA_ERROS = "mensagens.servico.erros";
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry, MetricsConfig::tags);
+    }
+
+    @Bean
+    public CountedAspect countedAspect(MeterRegistry registry) {
+        return new CountedAspect(registry, MetricsConfig::tags);
+    }
+
+    static Tags tags(ProceedingJoinPoint joinPoint) {
+        var assinatura = (MethodSignature) joinPoint.getSignature();
+        var parametros = assinatura.getParameterTypes();
+        var operacao = parametros.length > 0 && parametros[0] == MensagemCursor.class
+                ? assinatura.getName() + "PorCursor"
+                : assinatura.getName();
+        return Tags.of("operacao", operacao);
+    }
+}
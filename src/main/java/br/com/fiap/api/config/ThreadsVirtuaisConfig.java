@@ -0,0 +1,46 @@
+package br.com.fiap.api.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Executa as requisições do Tomcat e as respostas assíncronas do Spring MVC em threads virtuais quando
+ * {@code mensagens.threads-virtuais.habilitadas} é {@code true}. Exige Java 21 ou superior em tempo de execução;
+ * como a aplicação é compilada para Java 11, o executor é obtido por reflexão.
+ * <p>
+ * Com threads virtuais o limite de requisições simultâneas deixa de ser o número de threads do Tomcat
+ * e passa a ser o pool de conexões com o banco.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "mensagens.threads-virtuais", name = "habilitadas", havingValue = "true")
+public class ThreadsVirtuaisConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> executorDeThreadsVirtuais() {
+        var executor = criarExecutor();
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(criarExecutor());
+    }
+
+    static ExecutorService criarExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("Threads virtuais exigem Java 21 ou superior", e);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Não foi possível criar o executor de threads virtuais", e);
+        }
+    }
+}
@@ -1,56 +1,227 @@
 package br.com.fiap.api.controller;
 
+import br.com.fiap.api.config.MensagensProperties;
+import br.com.fiap.api.exception.FilaDeIngestaoCheiaException;
+import br.com.fiap.api.exception.MensagemDesatualizadaException;
 import br.com.fiap.api.exception.MensagemNotFoundException;
+import br.com.fiap.api.model.EstadoDaMensagem;
 import br.com.fiap.api.model.Mensagem;
+import br.com.fiap.api.model.MensagemCursor;
 import br.com.fiap.api.service.MensagemService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 @RestController
 @RequestMapping("mensagens")
 @RequiredArgsConstructor
+@Profile("!reactive")
 public class MensagemController {
 
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
     private final MensagemService mensagemService;
+    private final MensagensProperties properties;
+    private final ObjectMapper objectMapper;
 
+    /**
+     * Com {@code mensagens.ingestao.assincrona} a mensagem é apenas enfileirada: a resposta é {@code 202 Accepted}
+     * com o ID já atribuído, ou {@code 429 Too Many Requests} quando a fila está cheia. A resposta traz apenas os
+     * campos que sobrevivem a uma parada antes da gravação (ID, usuário e conteúdo, sem "gostei"): a
+     * {@code dataCriacao} e a {@code versao} vêm nulas e são atribuídas na gravação.
+     */
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<Mensagem> registrarMensagem(@RequestBody Mensagem mensagem) {
+    public ResponseEntity<?> registrarMensagem(@RequestBody Mensagem mensagem) {
+        if (properties.getIngestao().isAssincrona()) {
+            try {
+                var mensagemAceita = mensagemService.enfileirarMensagem(mensagem);
+                return new ResponseEntity<>(mensagemAceita, HttpStatus.ACCEPTED);
+            } catch (FilaDeIngestaoCheiaException filaDeIngestaoCheiaException) {
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .body(filaDeIngestaoCheiaException.getMessage());
+            }
+        }
         var mensagemRegistrada = mensagemService.registrarMensagem(mensagem);
         return new ResponseEntity<>(mensagemRegistrada, HttpStatus.CREATED);
     }
 
+    @PostMapping(value = "/lote", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> registrarMensagens(@RequestBody List<Mensagem> mensagens) {
+        var tamanhoMaximo = properties.getLote().getTamanhoMaximo();
+        if (mensagens.size() > tamanhoMaximo) {
+            return new ResponseEntity<>("O lote deve conter no máximo " + tamanhoMaximo + " mensagens", HttpStatus.PAYLOAD_TOO_LARGE);
+        }
+        var resultado = mensagemService.registrarMensagens(mensagens);
+        var status = resultado.getRegistradas() > 0 ? HttpStatus.CREATED : HttpStatus.BAD_REQUEST;
+        return new ResponseEntity<>(resultado, status);
+    }
+
+    /**
+     * Responde com a ETag da mensagem, formada pela versão e pelo "gostei"; com {@code If-None-Match} igual a ela
+     * a resposta é {@code 304 Not Modified}, sem corpo. A mesma ETag pode ser enviada em {@code If-Match} na alteração.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<?> buscarMensagem(@PathVariable String id) {
+    public ResponseEntity<?> buscarMensagem(@PathVariable String id, WebRequest request) {
         try {
-            var mensagens = mensagemService.listarMensagens(Pageable.unpaged());
             var mensagemObtida = mensagemService.buscarMensagem(UUID.fromString(id));
+            if (request.checkNotModified(etag(mensagemObtida))) {
+                // o status 304 e a ETag já foram definidos na resposta
+                return null;
+            }
             return new ResponseEntity<>(mensagemObtida, HttpStatus.OK);
         } catch (MensagemNotFoundException mensagemNotFoundException) {
             return new ResponseEntity<>(mensagemNotFoundException.getMessage(), HttpStatus.BAD_REQUEST);
         }
     }
 
+    /**
+     * Responde com a versão das mensagens como ETag; com {@code If-None-Match} igual à versão atual
+     * a resposta é {@code 304 Not Modified}, sem consultar o banco.
+     */
     @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<Page<Mensagem>> listarMensagens(@RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "10") int size) {
+    public ResponseEntity<Page<Mensagem>> listarMensagens(@RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "10") int size,
+                                                          WebRequest request) {
+        if (request.checkNotModified(mensagemService.versaoDasMensagens())) {
+            return null;
+        }
         var pageable = PageRequest.of(page, size);
         var mensagens = mensagemService.listarMensagens(pageable);
         return new ResponseEntity<>(mensagens, HttpStatus.OK);
     }
 
+    /**
+     * Listagem sem {@code totalElements} e {@code totalPages}, que evita a contagem de toda a tabela a cada página.
+     * Aceita {@code If-None-Match} como {@link #listarMensagens}. Com {@code usuario} a requisição é atendida por
+     * {@link #listarMensagensDoUsuario}, que também não conta as mensagens.
+     */
+    @GetMapping(params = {"semTotal=true", "!usuario"}, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Slice<Mensagem>> listarMensagensSemTotal(@RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "10") int size,
+                                                                   WebRequest request) {
+        if (request.checkNotModified(mensagemService.versaoDasMensagens())) {
+            return null;
+        }
+        var mensagens = mensagemService.listarMensagensSemTotal(PageRequest.of(page, size));
+        return new ResponseEntity<>(mensagens, HttpStatus.OK);
+    }
+
+    @GetMapping(value = "/busca", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> buscarMensagens(@RequestParam(defaultValue = "") String q,
+                                             @RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "10") int size) {
+        try {
+            var mensagens = mensagemService.buscarMensagens(q, PageRequest.of(page, size));
+            return new ResponseEntity<>(mensagens, HttpStatus.OK);
+        } catch (IllegalArgumentException illegalArgumentException) {
+            return new ResponseEntity<>(illegalArgumentException.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Listagem por cursor: {@code cursor} vazio retorna a primeira página e o {@code nextCursor}
+     * de cada resposta deve ser repassado para obter a página seguinte.
+     */
+    @GetMapping(params = {"cursor", "!usuario"}, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> listarMensagensPorCursor(@RequestParam String cursor, @RequestParam(defaultValue = "10") int size) {
+        try {
+            var posicao = cursor.isBlank() ? null : MensagemCursor.decodificar(cursor);
+            var mensagens = mensagemService.listarMensagens(posicao, size);
+            return new ResponseEntity<>(mensagens, HttpStatus.OK);
+        } catch (IllegalArgumentException illegalArgumentException) {
+            return new ResponseEntity<>(illegalArgumentException.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Mensagens do usuário, das mais recentes para as mais antigas, paginadas por cursor como em
+     * {@link #listarMensagensPorCursor}; sem {@code cursor} retorna a primeira página.
+     */
+    @GetMapping(params = "usuario", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> listarMensagensDoUsuario(@RequestParam String usuario, @RequestParam(defaultValue = "") String cursor,
+                                                      @RequestParam(defaultValue = "10") int size) {
+        try {
+            var posicao = cursor.isBlank() ? null : MensagemCursor.decodificar(cursor);
+            var mensagens = mensagemService.listarMensagensDoUsuario(usuario, posicao, size);
+            return new ResponseEntity<>(mensagens, HttpStatus.OK);
+        } catch (IllegalArgumentException illegalArgumentException) {
+            return new ResponseEntity<>(illegalArgumentException.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Exporta todas as mensagens em NDJSON (uma mensagem JSON por linha), escrevendo cada linha
+     * na resposta assim que é lida do banco.
+     */
+    @GetMapping(value = "/export", produces = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportarMensagens() {
+        StreamingResponseBody corpo = saida -> {
+            var escritor = objectMapper.writerFor(Mensagem.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            try (var gerador = objectMapper.getFactory().createGenerator(saida)) {
+                gerador.setRootValueSeparator(null);
+                mensagemService.exportarMensagens(mensagem -> {
+                    try {
+                        escritor.writeValue(gerador, mensagem);
+                        gerador.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE)).body(corpo);
+    }
+
+    /**
+     * Com {@code If-Match} a alteração só é feita se a ETag atual da mensagem (versão e "gostei") for uma das
+     * informadas na lista; a comparação é forte, então ETags fracas nunca correspondem, e {@code *} não restringe o
+     * estado. Como a ETag inclui o "gostei", um "gostei" gravado depois da leitura também resulta em
+     * {@code 412 Precondition Failed}. Sem o cabeçalho, a {@code versao} no corpo restringe apenas a versão.
+     * Após um {@code 412} a mensagem deve ser obtida de novo; a verificação e a gravação são uma única instrução,
+     * então uma alteração concorrente também resulta em {@code 412}.
+     */
     @PutMapping(value = "/{id}", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<?> alterarMensagem(@PathVariable String id, @RequestBody Mensagem mensagem) {
+    public ResponseEntity<?> alterarMensagem(@PathVariable String id, @RequestBody Mensagem mensagem,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
-            var mensagens = mensagemService.listarMensagens(Pageable.unpaged());
-            var mensagemAtualizada = mensagemService.alterarMensagem(UUID.fromString(id), mensagem);
-            return new ResponseEntity<>(mensagemAtualizada, HttpStatus.ACCEPTED);
+            var mensagemAtualizada = ifMatch == null || ifMatch.trim().equals("*")
+                    ? mensagemService.alterarMensagem(UUID.fromString(id), mensagem)
+                    : mensagemService.alterarMensagem(UUID.fromString(id), mensagem, estadosAceitos(ifMatch));
+            return ResponseEntity.status(HttpStatus.ACCEPTED).eTag(etag(mensagemAtualizada)).body(mensagemAtualizada);
+        } catch (MensagemNotFoundException mensagemNotFoundException) {
+            return new ResponseEntity<>(mensagemNotFoundException.getMessage(), HttpStatus.BAD_REQUEST);
+        } catch (MensagemDesatualizadaException mensagemDesatualizadaException) {
+            return new ResponseEntity<>(mensagemDesatualizadaException.getMessage(), HttpStatus.PRECONDITION_FAILED);
+        }
+    }
+
+    /**
+     * Registra um "gostei" na mensagem. A contagem é gravada no banco de forma assíncrona,
+     * por isso a resposta é {@code 202 Accepted}.
+     */
+    @PostMapping(value = "/{id}/gostei")
+    public ResponseEntity<?> registrarGostei(@PathVariable String id) {
+        try {
+            var uuid = UUID.fromString(id);
+            // a busca é servida pelo cache e apenas garante que a mensagem existe
+            mensagemService.buscarMensagem(uuid);
+            mensagemService.registrarGostei(uuid);
+            return new ResponseEntity<>("gostei registrado", HttpStatus.ACCEPTED);
         } catch (MensagemNotFoundException mensagemNotFoundException) {
             return new ResponseEntity<>(mensagemNotFoundException.getMessage(), HttpStatus.BAD_REQUEST);
         }
@@ -66,4 +237,33 @@ public class MensagemController {
         }
     }
 
+    /**
+     * Usuário e data de criação não mudam e o conteúdo só muda com a versão, então versão e "gostei" identificam o estado.
+     */
+    static String etag(Mensagem mensagem) {
+        return "\"" + mensagem.getVersao() + "-" + mensagem.getGostei() + "\"";
+    }
+
+    /**
+     * Estados correspondentes às ETags da lista de {@code If-Match}; ETags fracas ou inválidas são descartadas, já que
+     * nunca correspondem à atual.
+     */
+    static List<EstadoDaMensagem> estadosAceitos(String ifMatch) {
+        var estados = new ArrayList<EstadoDaMensagem>();
+        for (var valor : ifMatch.split(",")) {
+            var etag = valor.trim();
+            var separador = etag.indexOf('-');
+            if (!etag.startsWith("\"") || !etag.endsWith("\"") || separador < 0) {
+                continue;
+            }
+            try {
+                estados.add(new EstadoDaMensagem(Long.parseLong(etag.substring(1, separador)),
+                        Integer.parseInt(etag.substring(separador + 1, etag.length() - 1))));
+            } catch (NumberFormatException e) {
+                // não corresponde a nenhuma ETag gerada por etag(Mensagem)
+            }
+        }
+        return estados;
+    }
+
 }
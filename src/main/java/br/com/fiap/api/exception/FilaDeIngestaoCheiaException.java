@@ -0,0 +1,7 @@
+package br.com.fiap.api.exception;
+
+public class FilaDeIngestaoCheiaException extends RuntimeException {
+    public FilaDeIngestaoCheiaException(String mensagem) {
+        super(mensagem);
+    }
+}
@@ -0,0 +1,7 @@
+package br.com.fiap.api.exception;
+
+public class MensagemDesatualizadaException extends RuntimeException {
+    public MensagemDesatualizadaException(String mensagem) {
+        super(mensagem);
+    }
+}
@@ -0,0 +1,19 @@
+package br.com.fiap.api.model;
+
+import lombok.Value;
+
+/**
+ * Estado esperado por uma alteração condicional: a versão e, quando informado, o número de "gostei".
+ * <p>
+ * Sem o "gostei" apenas a versão é comparada, como na {@code versao} enviada no corpo da alteração.
+ */
+@Value
+public class EstadoDaMensagem {
+
+    long versao;
+    Integer gostei;
+
+    public static EstadoDaMensagem daVersao(long versao) {
+        return new EstadoDaMensagem(versao, null);
+    }
+}
@@ -11,11 +11,18 @@ import org.hibernate.annotations.GenericGenerator;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.persistence.Version;
 import javax.validation.constraints.NotEmpty;
 import java.util.Date;
 import java.util.UUID;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_mensagem_data_criacao_id", columnList = "dataCriacao DESC, id DESC"),
+        @Index(name = "idx_mensagem_usuario_data_criacao_id", columnList = "usuario, dataCriacao DESC, id DESC")
+})
 @Data
 @Builder(toBuilder = true)
 @NoArgsConstructor
@@ -25,6 +32,7 @@ public class Mensagem {
 
     @Id
     @GenericGenerator(name = "uuid2", strategy = "uuid2")
+    @Column(columnDefinition = "uuid")
     private UUID id;
 
     @Column(nullable = false)
@@ -42,4 +50,10 @@ public class Mensagem {
     @Builder.Default
     private int gostei = 0;
 
+    /**
+     * Incrementada a cada alteração do conteúdo; o "gostei" não altera a versão.
+     */
+    @Version
+    private Long versao;
+
 }
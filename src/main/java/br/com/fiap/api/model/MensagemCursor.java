@@ -0,0 +1,61 @@
+package br.com.fiap.api.model;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Posição de uma mensagem na ordenação {@code (dataCriacao DESC, id DESC)}.
+ * <p>
+ * É exposto aos clientes apenas na forma codificada, que deve ser tratada como opaca.
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class MensagemCursor {
+
+    private static final String SEPARADOR = "|";
+
+    Instant dataCriacao;
+    UUID id;
+
+    public static MensagemCursor de(Mensagem mensagem) {
+        return new MensagemCursor(paraInstant(mensagem.getDataCriacao()), mensagem.getId());
+    }
+
+    public static MensagemCursor decodificar(String cursor) {
+        try {
+            var valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            var separador = valor.indexOf(SEPARADOR);
+            if (separador < 0) {
+                throw new IllegalArgumentException("Cursor inválido");
+            }
+            return new MensagemCursor(
+                    Instant.parse(valor.substring(0, separador)),
+                    UUID.fromString(valor.substring(separador + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Cursor inválido", e);
+        }
+    }
+
+    public String codificar() {
+        var valor = dataCriacao + SEPARADOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Date getDataCriacaoComoDate() {
+        return Timestamp.from(dataCriacao);
+    }
+
+    private static Instant paraInstant(Date data) {
+        // Timestamp#toInstant preserva a precisão de micro/nanossegundos vinda do banco
+        return data instanceof Timestamp ? ((Timestamp) data).toInstant() : data.toInstant();
+    }
+}
@@ -0,0 +1,40 @@
+package br.com.fiap.api.model;
+
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+import java.util.List;
+
+/**
+ * Página de mensagens obtida por cursor (keyset), sem contagem total de registros.
+ */
+@Value
+@Builder
+@Jacksonized
+public class MensagemCursorPage {
+
+    List<Mensagem> content;
+    int size;
+    int numberOfElements;
+    boolean first;
+    boolean last;
+    String nextCursor;
+
+    /**
+     * Monta a página a partir de uma consulta que buscou {@code size + 1} registros;
+     * o registro excedente apenas indica que existe uma próxima página.
+     */
+    public static MensagemCursorPage de(List<Mensagem> mensagens, int size, boolean first) {
+        var possuiProxima = mensagens.size() > size;
+        var content = possuiProxima ? mensagens.subList(0, size) : mensagens;
+        return MensagemCursorPage.builder()
+                .content(content)
+                .size(size)
+                .numberOfElements(content.size())
+                .first(first)
+                .last(!possuiProxima)
+                .nextCursor(possuiProxima ? MensagemCursor.de(content.get(size - 1)).codificar() : null)
+                .build();
+    }
+}
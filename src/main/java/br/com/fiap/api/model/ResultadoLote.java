@@ -0,0 +1,40 @@
+package br.com.fiap.api.model;
+
+import lombok.Builder;
+import lombok.Singular;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Resultado do registro de um lote de mensagens, com a situação de cada item na ordem recebida.
+ */
+@Value
+@Builder
+@Jacksonized
+public class ResultadoLote {
+
+    int total;
+    int registradas;
+    int rejeitadas;
+    @Singular("item")
+    List<Item> itens;
+
+    public enum Situacao {
+        REGISTRADA,
+        REJEITADA
+    }
+
+    @Value
+    @Builder
+    @Jacksonized
+    public static class Item {
+        int indice;
+        Situacao situacao;
+        UUID id;
+        @Singular("erro")
+        List<String> erros;
+    }
+}
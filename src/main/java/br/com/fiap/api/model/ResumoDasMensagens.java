@@ -0,0 +1,19 @@
+package br.com.fiap.api.model;
+
+import lombok.Value;
+
+/**
+ * Quantidade de mensagens e somas das versões e dos "gostei", que juntas mudam a cada registro, alteração,
+ * remoção ou "gostei" gravado.
+ */
+@Value
+public class ResumoDasMensagens {
+
+    long total;
+    long versoes;
+    long gosteis;
+
+    public ResumoDasMensagens somar(long total, long versoes, long gosteis) {
+        return new ResumoDasMensagens(this.total + total, this.versoes + versoes, this.gosteis + gosteis);
+    }
+}
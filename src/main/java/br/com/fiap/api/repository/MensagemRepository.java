@@ -1,17 +1,103 @@
 package br.com.fiap.api.repository;
 
 import br.com.fiap.api.model.Mensagem;
+import br.com.fiap.api.model.ResumoDasMensagens;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.QueryHint;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
+/**
+ * As consultas de leitura projetam as colunas diretamente em instâncias de {@link Mensagem} com a expressão
+ * {@code SELECT new}: os objetos não são gerenciados pelo contexto de persistência, então o Hibernate não guarda
+ * cópias para dirty checking nem as inclui no flush. As alterações também não carregam a entidade: cada uma é uma única
+ * instrução, e a quantidade de linhas afetadas indica se a mensagem existia.
+ * <p>
+ * As páginas da listagem usam o cache de consultas do Hibernate, descartado a cada alteração da tabela.
+ */
 @Repository
-public interface MensagemRepository extends JpaRepository<Mensagem, UUID> {
+public interface MensagemRepository extends JpaRepository<Mensagem, UUID>, MensagemRepositoryCustom {
 
-    @Query("SELECT m FROM Mensagem m ORDER BY m.dataCriacao DESC")
+    String PROJECAO = "SELECT new br.com.fiap.api.model.Mensagem(m.id, m.usuario, m.conteudo, m.dataCriacao, m.gostei, m.versao) FROM Mensagem m ";
+
+    @Transactional(readOnly = true)
+    @Query(PROJECAO + "WHERE m.id = :id")
+    Optional<Mensagem> buscarMensagem(@Param("id") UUID id);
+
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"))
+    @Query(value = PROJECAO + "ORDER BY m.dataCriacao DESC, m.id DESC",
+            countQuery = "SELECT COUNT(m) FROM Mensagem m")
     Page<Mensagem> listarMensagens(Pageable pageable);
+
+    /**
+     * Mesma ordenação de {@link #listarMensagens}, sem a contagem: busca um registro a mais para saber se há próxima página.
+     */
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"))
+    @Query(PROJECAO + "ORDER BY m.dataCriacao DESC, m.id DESC")
+    Slice<Mensagem> listarMensagensSemTotal(Pageable pageable);
+
+    @Transactional(readOnly = true)
+    @Query(PROJECAO + "ORDER BY m.dataCriacao DESC, m.id DESC")
+    List<Mensagem> listarMensagensRecentes(Pageable pageable);
+
+    /**
+     * A condição {@code m.dataCriacao <= :dataCriacao} é redundante, mas é o limite que o banco usa para iniciar a
+     * varredura de {@code idx_mensagem_data_criacao_id} no cursor; sem ela o OR obriga a percorrer e descartar todas as
+     * mensagens mais novas, e o custo de cada página cresce com a profundidade.
+     */
+    @Transactional(readOnly = true)
+    @Query(PROJECAO +
+            "WHERE m.dataCriacao <= :dataCriacao AND (m.dataCriacao < :dataCriacao OR m.id < :id) " +
+            "ORDER BY m.dataCriacao DESC, m.id DESC")
+    List<Mensagem> listarMensagensAnteriores(@Param("dataCriacao") Date dataCriacao, @Param("id") UUID id, Pageable pageable);
+
+    @Transactional(readOnly = true)
+    @Query(PROJECAO + "WHERE m.usuario = :usuario ORDER BY m.dataCriacao DESC, m.id DESC")
+    List<Mensagem> listarMensagensRecentesDoUsuario(@Param("usuario") String usuario, Pageable pageable);
+
+    /**
+     * Como em {@link #listarMensagensAnteriores}, a varredura de {@code idx_mensagem_usuario_data_criacao_id} começa
+     * em {@code (usuario, dataCriacao)}, e não na mensagem mais nova do usuário.
+     */
+    @Transactional(readOnly = true)
+    @Query(PROJECAO +
+            "WHERE m.usuario = :usuario AND m.dataCriacao <= :dataCriacao " +
+            "AND (m.dataCriacao < :dataCriacao OR m.id < :id) " +
+            "ORDER BY m.dataCriacao DESC, m.id DESC")
+    List<Mensagem> listarMensagensAnterioresDoUsuario(@Param("usuario") String usuario, @Param("dataCriacao") Date dataCriacao,
+                                                      @Param("id") UUID id, Pageable pageable);
+
+    /**
+     * Percorre a tabela como {@code count()}, somando também versões e "gostei" para identificar o estado das mensagens.
+     */
+    @Query("SELECT new br.com.fiap.api.model.ResumoDasMensagens(COUNT(m), COALESCE(SUM(m.versao), 0), COALESCE(SUM(m.gostei), 0)) "
+            + "FROM Mensagem m")
+    ResumoDasMensagens resumirMensagens();
+
+    /**
+     * Não incrementa a versão: o "gostei" não conflita com a alteração do conteúdo.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Mensagem m SET m.gostei = m.gostei + :quantidade WHERE m.id = :id")
+    int adicionarGostei(@Param("id") UUID id, @Param("quantidade") int quantidade);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Mensagem m WHERE m.id = :id")
+    int remover(@Param("id") UUID id);
 }
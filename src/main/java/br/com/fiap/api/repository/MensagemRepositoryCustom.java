@@ -0,0 +1,48 @@
+package br.com.fiap.api.repository;
+
+import br.com.fiap.api.model.EstadoDaMensagem;
+import br.com.fiap.api.model.Mensagem;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+public interface MensagemRepositoryCustom {
+
+    /**
+     * Insere uma nova mensagem com o ID já atribuído. Diferente de {@code save}, não consulta
+     * o banco antes do INSERT para decidir entre persistir ou mesclar a entidade.
+     */
+    Mensagem inserir(Mensagem mensagem);
+
+    /**
+     * Insere as mensagens usando o batch do JDBC, sem verificar previamente a existência de cada uma.
+     * O contexto de persistência é limpo a cada lote, desanexando as entidades carregadas na transação.
+     */
+    List<Mensagem> inserirEmLote(List<Mensagem> mensagens);
+
+    /**
+     * Altera o conteúdo e incrementa a versão com um único {@code UPDATE}, lendo em seguida a mensagem alterada.
+     * Com {@code estadosAceitos} a alteração só é feita se a mensagem ainda estiver em um deles; uma lista vazia
+     * nunca corresponde, e {@code null} altera a mensagem em qualquer estado.
+     *
+     * @return a mensagem alterada, não gerenciada, ou vazio se nenhuma linha foi alterada
+     */
+    Optional<Mensagem> alterarConteudo(UUID id, String conteudo, List<EstadoDaMensagem> estadosAceitos);
+
+    /**
+     * Percorre todas as mensagens com um cursor no servidor, em uma transação somente leitura,
+     * desanexando cada entidade após entregá-la ao consumidor para que a memória usada não cresça.
+     */
+    void percorrerMensagens(Consumer<Mensagem> consumidor);
+
+    /**
+     * Busca as mensagens cujo usuário ou conteúdo contenham todos os termos informados, das mais relevantes
+     * para as menos relevantes. No PostgreSQL usa a busca textual com o índice GIN {@code idx_mensagem_busca};
+     * nos demais bancos compara os termos com {@code LIKE}, ordenando apenas pela data de criação.
+     */
+    Page<Mensagem> buscarMensagens(String termos, Pageable pageable);
+}
@@ -0,0 +1,163 @@
+package br.com.fiap.api.repository;
+
+import br.com.fiap.api.config.MensagensProperties;
+import br.com.fiap.api.model.EstadoDaMensagem;
+import br.com.fiap.api.model.Mensagem;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.dialect.PostgreSQL81Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+@RequiredArgsConstructor
+public class MensagemRepositoryCustomImpl implements MensagemRepositoryCustom {
+
+    private static final String DOCUMENTO = "to_tsvector('portuguese', m.usuario || ' ' || m.conteudo)";
+
+    private final MensagensProperties properties;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int tamanhoDoLote;
+
+    @Override
+    @Transactional
+    public Mensagem inserir(Mensagem mensagem) {
+        entityManager.persist(mensagem);
+        return mensagem;
+    }
+
+    @Override
+    @Transactional
+    public List<Mensagem> inserirEmLote(List<Mensagem> mensagens) {
+        for (int i = 0; i < mensagens.size(); i++) {
+            entityManager.persist(mensagens.get(i));
+            if ((i + 1) % tamanhoDoLote == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return mensagens;
+    }
+
+    @Override
+    @Transactional
+    public Optional<Mensagem> alterarConteudo(UUID id, String conteudo, List<EstadoDaMensagem> estadosAceitos) {
+        if (estadosAceitos != null && estadosAceitos.isEmpty()) {
+            return Optional.empty();
+        }
+        var condicao = new StringBuilder();
+        if (estadosAceitos != null) {
+            for (int i = 0; i < estadosAceitos.size(); i++) {
+                condicao.append(i == 0 ? " AND (" : " OR ").append("(m.versao = :versao").append(i);
+                if (estadosAceitos.get(i).getGostei() != null) {
+                    condicao.append(" AND m.gostei = :gostei").append(i);
+                }
+                condicao.append(")");
+            }
+            condicao.append(")");
+        }
+        // o executeUpdate já descarta as páginas do cache de consultas que dependem de Mensagem
+        var alteracao = entityManager.createQuery("UPDATE Mensagem m SET m.conteudo = :conteudo, m.versao = m.versao + 1 "
+                        + "WHERE m.id = :id" + condicao)
+                .setParameter("id", id)
+                .setParameter("conteudo", conteudo);
+        if (estadosAceitos != null) {
+            for (int i = 0; i < estadosAceitos.size(); i++) {
+                var estado = estadosAceitos.get(i);
+                alteracao.setParameter("versao" + i, estado.getVersao());
+                if (estado.getGostei() != null) {
+                    alteracao.setParameter("gostei" + i, estado.getGostei());
+                }
+            }
+        }
+        if (alteracao.executeUpdate() == 0) {
+            return Optional.empty();
+        }
+        return entityManager.createQuery(MensagemRepository.PROJECAO + "WHERE m.id = :id", Mensagem.class)
+                .setParameter("id", id)
+                .getResultStream()
+                .findFirst();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Mensagem> buscarMensagens(String termos, Pageable pageable) {
+        return isPostgreSQL() ? buscarComTextSearch(termos, pageable) : buscarComLike(termos, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void percorrerMensagens(Consumer<Mensagem> consumidor) {
+        var consulta = entityManager.createQuery("SELECT m FROM Mensagem m", Mensagem.class)
+                .setHint(QueryHints.HINT_FETCH_SIZE, properties.getExportacao().getFetchSize())
+                .setHint(QueryHints.HINT_READONLY, true);
+        try (var mensagens = consulta.getResultStream()) {
+            mensagens.forEach(mensagem -> {
+                consumidor.accept(mensagem);
+                entityManager.detach(mensagem);
+            });
+        }
+    }
+
+    private Page<Mensagem> buscarComTextSearch(String termos, Pageable pageable) {
+        // a expressão precisa ser idêntica à do índice idx_mensagem_busca (db/migration/postgresql)
+        var filtro = " FROM mensagem m WHERE " + DOCUMENTO + " @@ websearch_to_tsquery('portuguese', :termos)";
+        var consulta = entityManager.createNativeQuery("SELECT m.*" + filtro
+                        + " ORDER BY ts_rank(" + DOCUMENTO + ", websearch_to_tsquery('portuguese', :termos)) DESC,"
+                        + " m.data_criacao DESC, m.id DESC", Mensagem.class)
+                .setParameter("termos", termos);
+        var contagem = entityManager.createNativeQuery("SELECT COUNT(*)" + filtro)
+                .setParameter("termos", termos);
+        return paginar(consulta, contagem, pageable);
+    }
+
+    private Page<Mensagem> buscarComLike(String termos, Pageable pageable) {
+        var palavras = termos.toLowerCase(Locale.ROOT).trim().split("\\s+");
+        var filtro = new StringBuilder(" FROM Mensagem m WHERE 1 = 1");
+        for (int i = 0; i < palavras.length; i++) {
+            filtro.append(" AND (LOWER(m.usuario) LIKE :termo").append(i)
+                    .append(" ESCAPE '\\' OR LOWER(m.conteudo) LIKE :termo").append(i).append(" ESCAPE '\\')");
+        }
+        var consulta = entityManager.createQuery("SELECT m" + filtro + " ORDER BY m.dataCriacao DESC, m.id DESC", Mensagem.class);
+        var contagem = entityManager.createQuery("SELECT COUNT(m)" + filtro);
+        for (int i = 0; i < palavras.length; i++) {
+            var padrao = "%" + palavras[i].replaceAll("([\\\\%_])", "\\\\$1") + "%";
+            consulta.setParameter("termo" + i, padrao);
+            contagem.setParameter("termo" + i, padrao);
+        }
+        return paginar(consulta, contagem, pageable);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Page<Mensagem> paginar(Query consulta, Query contagem, Pageable pageable) {
+        if (pageable.isPaged()) {
+            consulta.setFirstResult((int) pageable.getOffset()).setMaxResults(pageable.getPageSize());
+        }
+        List<Mensagem> mensagens = consulta.getResultList();
+        return PageableExecutionUtils.getPage(mensagens, pageable, () -> ((Number) contagem.getSingleResult()).longValue());
+    }
+
+    private boolean isPostgreSQL() {
+        var dialeto = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect();
+        return dialeto instanceof PostgreSQL81Dialect;
+    }
+}
@@ -0,0 +1,113 @@
+package br.com.fiap.api.service;
+
+import br.com.fiap.api.config.CacheConfig;
+import br.com.fiap.api.repository.MensagemRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Acumula os "gostei" em memória, um {@link LongAdder} por mensagem, e os grava periodicamente no banco
+ * com um único {@code UPDATE ... SET gostei = gostei + :quantidade} por mensagem. Assim, mensagens muito
+ * curtidas não disputam o lock da mesma linha a cada requisição.
+ */
+@Component
+@Profile("!reactive")
+@RequiredArgsConstructor
+public class ContadorDeGostei {
+
+    private static final long CARENCIA_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final MensagemRepository repository;
+    private final MensagemTimeline timeline;
+    private final CacheManager cacheManager;
+
+    private final Map<UUID, LongAdder> pendentes = new ConcurrentHashMap<>();
+
+    /**
+     * Contadores retirados do mapa por estarem ociosos. Uma requisição concorrente pode ter obtido o contador
+     * antes da remoção e incrementá-lo logo depois, por isso eles continuam sendo descarregados durante um
+     * período de carência antes de serem descartados.
+     */
+    private final Deque<Aposentado> aposentados = new ArrayDeque<>();
+
+    public void incrementar(UUID id) {
+        pendentes.computeIfAbsent(id, chave -> new LongAdder()).increment();
+    }
+
+    public long pendentes(UUID id) {
+        var contador = pendentes.get(id);
+        return contador == null ? 0 : contador.sum();
+    }
+
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${mensagens.gostei.intervalo-de-descarga:PT1S}")
+    public synchronized void descarregar() {
+        var agora = System.nanoTime();
+        while (!aposentados.isEmpty() && agora - aposentados.peekFirst().desde > CARENCIA_NANOS) {
+            var aposentado = aposentados.pollFirst();
+            if (!gravar(aposentado.id, aposentado.contador)) {
+                aposentados.addLast(new Aposentado(aposentado.id, aposentado.contador, agora));
+            }
+        }
+        for (var aposentado : aposentados) {
+            gravar(aposentado.id, aposentado.contador);
+        }
+
+        for (var entrada : pendentes.entrySet()) {
+            var id = entrada.getKey();
+            var contador = entrada.getValue();
+            if (gravar(id, contador) && contador.sum() == 0 && pendentes.remove(id, contador)) {
+                aposentados.addLast(new Aposentado(id, contador, agora));
+            }
+        }
+    }
+
+    /**
+     * Grava a quantidade acumulada e a desconta do contador; incrementos feitos durante a gravação
+     * permanecem para a próxima descarga. Retorna {@code false} se a gravação falhar.
+     */
+    private boolean gravar(UUID id, LongAdder contador) {
+        var quantidade = contador.sum();
+        if (quantidade == 0) {
+            return true;
+        }
+        try {
+            if (repository.adicionarGostei(id, (int) quantidade) > 0) {
+                timeline.adicionarGostei(id, (int) quantidade);
+                var cache = cacheManager.getCache(CacheConfig.CACHE_MENSAGENS);
+                if (cache != null) {
+                    cache.evict(id);
+                }
+            }
+            contador.add(-quantidade);
+            return true;
+        } catch (DataAccessException e) {
+            return false;
+        }
+    }
+
+    private static final class Aposentado {
+        private final UUID id;
+        private final LongAdder contador;
+        private final long desde;
+
+        private Aposentado(UUID id, LongAdder contador, long desde) {
+            this.id = id;
+            this.contador = contador;
+            this.desde = desde;
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package br.com.fiap.api.service;
+
+import br.com.fiap.api.model.Mensagem;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * Diário (write-ahead log) das mensagens aceitas pela {@link FilaDeIngestao} e ainda não gravadas no banco.
+ * <p>
+ * As mensagens são acrescentadas a dois segmentos mapeados em memória, usados alternadamente: quando o segmento
+ * ativo enche, a escrita passa para o outro, desde que todas as mensagens dele já tenham sido gravadas no banco.
+ * Cada segmento começa pela geração e pela quantidade de registros já confirmados; cada registro tem o tamanho,
+ * o CRC32 e os dados da mensagem (ID, usuário e conteúdo, os mesmos informados na resposta {@code 202}), seguidos de
+ * um marcador de fim. A leitura para no marcador ou no primeiro registro incompleto.
+ * <p>
+ * A sincronização com o disco é feita em grupo: quem chega a {@link #sincronizar} enquanto outra sincronização está
+ * em andamento espera por ela e só força o segmento de novo se os seus registros não tiverem sido incluídos. Apenas
+ * os segmentos escritos desde a última sincronização são forçados; normalmente só o ativo.
+ * <p>
+ * As confirmações seguem a ordem de escrita, que deve ser a mesma da fila, e não são sincronizadas com o disco:
+ * após uma parada abrupta algumas mensagens já gravadas podem ser recuperadas de novo. Quando um segmento não tem
+ * mais mensagens pendentes ele volta ao início (checkpoint).
+ */
+public class DiarioDeIngestao {
+
+    private static final int CONFIRMADOS = Long.BYTES;
+    private static final int INICIO_DOS_REGISTROS = CONFIRMADOS + Integer.BYTES;
+    private static final int CABECALHO = 2 * Integer.BYTES;
+    private static final int FIM = 0;
+
+    private final Segmento[] segmentos;
+    private int ativo;
+    private long escritos;
+
+    private final Object sincronizacao = new Object();
+    private volatile long sincronizados;
+
+    private final List<Mensagem> recuperadas;
+
+    private DiarioDeIngestao(Segmento[] segmentos) {
+        this.segmentos = segmentos;
+        this.ativo = segmentos[1].geracao > segmentos[0].geracao ? 1 : 0;
+        this.recuperadas = new ArrayList<>();
+        var porGeracao = Arrays.copyOf(segmentos, segmentos.length);
+        Arrays.sort(porGeracao, Comparator.comparingLong(segmento -> segmento.geracao));
+        for (var segmento : porGeracao) {
+            segmento.ler(recuperadas);
+        }
+    }
+
+    /**
+     * Abre (ou cria) os segmentos no diretório e lê os registros ainda pendentes, disponíveis em {@link #recuperar()}.
+     */
+    public static DiarioDeIngestao abrir(Path diretorio, int tamanhoDoSegmento) throws IOException {
+        if (tamanhoDoSegmento < INICIO_DOS_REGISTROS + CABECALHO + Integer.BYTES) {
+            throw new IllegalArgumentException("O segmento do diário deve ter espaço para ao menos um registro");
+        }
+        Files.createDirectories(diretorio);
+        return new DiarioDeIngestao(new Segmento[]{
+                Segmento.mapear(diretorio.resolve("ingestao-0.wal"), tamanhoDoSegmento),
+                Segmento.mapear(diretorio.resolve("ingestao-1.wal"), tamanhoDoSegmento)
+        });
+    }
+
+    /**
+     * Mensagens registradas e não confirmadas antes do encerramento anterior, na ordem em que foram escritas.
+     * Continuam pendentes até serem confirmadas.
+     */
+    public List<Mensagem> recuperar() {
+        return recuperadas;
+    }
+
+    /**
+     * Acrescenta a mensagem ao segmento ativo, sem sincronizar com o disco.
+     *
+     * @return número de sequência a ser passado para {@link #sincronizar}, ou {@code -1} se não houver espaço
+     */
+    public synchronized long acrescentar(Mensagem mensagem) {
+        var dados = codificar(mensagem);
+        var segmento = segmentos[ativo];
+        if (!segmento.cabe(dados.length)) {
+            var proximo = segmentos[1 - ativo];
+            if (proximo.pendentes > 0 || !proximo.cabeVazio(dados.length)) {
+                return -1;
+            }
+            proximo.iniciar(segmento.geracao + 1);
+            ativo = 1 - ativo;
+            segmento = proximo;
+        }
+        segmento.escrever(dados);
+        return ++escritos;
+    }
+
+    /**
+     * Garante que o registro de número {@code sequencia}, e todos os anteriores, estão no disco.
+     */
+    public void sincronizar(long sequencia) {
+        if (sincronizados >= sequencia) {
+            return;
+        }
+        synchronized (sincronizacao) {
+            if (sincronizados >= sequencia) {
+                return;
+            }
+            long alvo;
+            var alterados = new ArrayList<Segmento>(segmentos.length);
+            synchronized (this) {
+                alvo = escritos;
+                for (var segmento : segmentos) {
+                    if (segmento.alterado) {
+                        segmento.alterado = false;
+                        alterados.add(segmento);
+                    }
+                }
+            }
+            try {
+                for (var segmento : alterados) {
+                    segmento.buffer.force();
+                }
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    alterados.forEach(segmento -> segmento.alterado = true);
+                }
+                throw e;
+            }
+            sincronizados = alvo;
+        }
+    }
+
+    /**
+     * Confirma a gravação no banco das {@code quantidade} mensagens mais antigas.
+     */
+    public synchronized void confirmar(int quantidade) {
+        var anterior = segmentos[1 - ativo];
+        var doAnterior = Math.min(quantidade, anterior.pendentes);
+        anterior.confirmar(doAnterior);
+        segmentos[ativo].confirmar(quantidade - doAnterior);
+    }
+
+    public synchronized int pendentes() {
+        return segmentos[0].pendentes + segmentos[1].pendentes;
+    }
+
+    private static byte[] codificar(Mensagem mensagem) {
+        var usuario = mensagem.getUsuario().getBytes(StandardCharsets.UTF_8);
+        var conteudo = mensagem.getConteudo().getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(2 * Long.BYTES + 2 * Integer.BYTES + usuario.length + conteudo.length)
+                .putLong(mensagem.getId().getMostSignificantBits())
+                .putLong(mensagem.getId().getLeastSignificantBits())
+                .putInt(usuario.length).put(usuario)
+                .putInt(conteudo.length).put(conteudo)
+                .array();
+    }
+
+    private static Mensagem decodificar(ByteBuffer dados) {
+        var id = new UUID(dados.getLong(), dados.getLong());
+        var usuario = new byte[dados.getInt()];
+        dados.get(usuario);
+        var conteudo = new byte[dados.getInt()];
+        dados.get(conteudo);
+        return Mensagem.builder()
+                .id(id)
+                .usuario(new String(usuario, StandardCharsets.UTF_8))
+                .conteudo(new String(conteudo, StandardCharsets.UTF_8))
+                .build();
+    }
+
+    private static int crc(byte[] dados, int inicio, int tamanho) {
+        var crc = new CRC32();
+        crc.update(dados, inicio, tamanho);
+        return (int) crc.getValue();
+    }
+
+    private static final class Segmento {
+        /**
+         * Usado apenas para {@code force()}; as escritas passam por {@link #escrita}, que tem posição própria.
+         */
+        private final MappedByteBuffer buffer;
+        private final ByteBuffer escrita;
+        private long geracao;
+        private int registros;
+        private int pendentes;
+        /**
+         * Recebeu registros desde a última sincronização.
+         */
+        private boolean alterado;
+
+        private Segmento(MappedByteBuffer buffer) {
+            this.buffer = buffer;
+            this.escrita = buffer.duplicate();
+            this.geracao = buffer.getLong(0);
+            this.escrita.position(INICIO_DOS_REGISTROS);
+        }
+
+        static Segmento mapear(Path arquivo, int tamanho) throws IOException {
+            try (var canal = FileChannel.open(arquivo, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                // o mapeamento continua válido depois de fechado o canal
+                return new Segmento(canal.map(FileChannel.MapMode.READ_WRITE, 0, tamanho));
+            }
+        }
+
+        void iniciar(long geracao) {
+            this.geracao = geracao;
+            escrita.putLong(0, geracao);
+            escrita.putInt(CONFIRMADOS, 0);
+            escrita.putInt(INICIO_DOS_REGISTROS, FIM);
+            escrita.position(INICIO_DOS_REGISTROS);
+            registros = 0;
+            pendentes = 0;
+        }
+
+        void confirmar(int quantidade) {
+            if (quantidade == 0) {
+                return;
+            }
+            pendentes -= quantidade;
+            if (pendentes == 0) {
+                iniciar(geracao);
+            } else {
+                escrita.putInt(CONFIRMADOS, registros - pendentes);
+            }
+        }
+
+        boolean cabe(int tamanho) {
+            return escrita.remaining() >= CABECALHO + tamanho + Integer.BYTES;
+        }
+
+        boolean cabeVazio(int tamanho) {
+            return escrita.capacity() - INICIO_DOS_REGISTROS >= CABECALHO + tamanho + Integer.BYTES;
+        }
+
+        void escrever(byte[] dados) {
+            escrita.putInt(dados.length).putInt(crc(dados, 0, dados.length)).put(dados);
+            escrita.putInt(escrita.position(), FIM);
+            registros++;
+            pendentes++;
+            alterado = true;
+        }
+
+        /**
+         * Lê os registros não confirmados e posiciona a escrita depois do último registro íntegro.
+         */
+        void ler(List<Mensagem> mensagens) {
+            var confirmados = buffer.getInt(CONFIRMADOS);
+            var leitura = buffer.duplicate();
+            leitura.position(INICIO_DOS_REGISTROS);
+            while (leitura.remaining() >= CABECALHO) {
+                var tamanho = leitura.getInt();
+                var crc = leitura.getInt();
+                if (tamanho <= 0 || tamanho > leitura.remaining() - Integer.BYTES) {
+                    break;
+                }
+                var dados = new byte[tamanho];
+                leitura.get(dados);
+                if (crc(dados, 0, tamanho) != crc) {
+                    break;
+                }
+                if (registros++ >= confirmados) {
+                    mensagens.add(decodificar(ByteBuffer.wrap(dados)));
+                    pendentes++;
+                }
+                escrita.position(leitura.position());
+            }
+            escrita.putInt(escrita.position(), FIM);
+        }
+    }
+}
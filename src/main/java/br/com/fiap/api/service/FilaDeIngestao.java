@@ -0,0 +1,287 @@
+package br.com.fiap.api.service;
+
+import br.com.fiap.api.config.MensagensProperties;
+import br.com.fiap.api.model.Mensagem;
+import br.com.fiap.api.repository.MensagemRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fila limitada de mensagens aceitas e ainda não gravadas, usada no registro assíncrono
+ * ({@code mensagens.ingestao.assincrona}). As requisições apenas enfileiram; a gravação é feita
+ * periodicamente em lotes por {@link MensagemRepository#inserirEmLote}.
+ * <p>
+ * A ocupação conta as mensagens até a gravação do lote, e não até a saída da fila, para que a fila
+ * recuse novas mensagens enquanto o banco estiver indisponível.
+ * <p>
+ * Com {@code mensagens.ingestao.diario.habilitado} cada mensagem é registrada no {@link DiarioDeIngestao} antes de ser
+ * aceita, e as mensagens que estavam no diário quando a aplicação parou são enfileiradas de novo na inicialização.
+ * Uma mensagem já gravada antes da parada é recusada pela chave primária e descartada. A mensagem entra na fila junto
+ * com o registro no diário, para manter a mesma ordem, mas só é retirada depois que a requisição que a aceitou
+ * confirmar a sincronização com o disco; se a sincronização falhar ela é cancelada e apenas confirmada no diário,
+ * sem ser gravada.
+ * <p>
+ * Apenas falhas transitórias ou de conexão mantêm o lote na fila para uma nova tentativa; qualquer outra falha faz
+ * com que as mensagens sejam gravadas uma a uma, descartando as que o banco recusar.
+ */
+@Component
+@Profile("!reactive")
+public class FilaDeIngestao {
+
+    private final MensagemRepository repository;
+    private final MensagemTimeline timeline;
+    private final int capacidade;
+    private final int tamanhoDoLote;
+
+    private final Queue<Entrada> fila = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger ocupacao = new AtomicInteger();
+    private final DiarioDeIngestao diario;
+
+    private final Timer tempoDeGravacao;
+    private final Timer esperaPeloDiario;
+    private final Counter recusadas;
+    private final Counter descartadas;
+
+    /**
+     * Lote retirado da fila cuja gravação falhou por indisponibilidade do banco; é gravado antes dos próximos.
+     */
+    private List<Entrada> pendente = Collections.emptyList();
+
+    public FilaDeIngestao(MensagemRepository repository, MensagemTimeline timeline, MensagensProperties properties,
+                          MeterRegistry registry) {
+        this.repository = repository;
+        this.timeline = timeline;
+        this.capacidade = properties.getIngestao().getCapacidade();
+        this.tamanhoDoLote = properties.getIngestao().getTamanhoDoLote();
+        this.diario = abrirDiario(properties.getIngestao().getDiario());
+        Gauge.builder("mensagens.ingestao.fila", ocupacao, AtomicInteger::get)
+                .description("Mensagens aceitas e ainda não gravadas")
+                .register(registry);
+        this.tempoDeGravacao = Timer.builder("mensagens.ingestao.gravacao")
+                .description("Tempo de gravação de cada lote da fila de ingestão")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.esperaPeloDiario = Timer.builder("mensagens.ingestao.diario")
+                .description("Espera pela sincronização do diário com o disco antes de aceitar a mensagem")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.recusadas = Counter.builder("mensagens.ingestao.recusadas")
+                .description("Mensagens recusadas com a fila cheia")
+                .register(registry);
+        this.descartadas = Counter.builder("mensagens.ingestao.descartadas")
+                .description("Mensagens rejeitadas pelo banco durante a gravação")
+                .register(registry);
+    }
+
+    private DiarioDeIngestao abrirDiario(MensagensProperties.Diario configuracao) {
+        if (!configuracao.isHabilitado()) {
+            return null;
+        }
+        var tamanhoDoSegmento = configuracao.getTamanhoDoSegmento().toBytes();
+        // cada segmento é um único mapeamento em memória, limitado a Integer.MAX_VALUE bytes
+        if (tamanhoDoSegmento > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("mensagens.ingestao.diario.tamanho-do-segmento deve ser menor que 2GB");
+        }
+        try {
+            var diarioAberto = DiarioDeIngestao.abrir(Path.of(configuracao.getDiretorio()), (int) tamanhoDoSegmento);
+            var recuperadas = diarioAberto.recuperar();
+            recuperadas.forEach(mensagem -> fila.add(new Entrada(mensagem, Situacao.SINCRONIZADA)));
+            // intencionalmente sem limitar pela capacidade: as recuperadas já foram aceitas com 202 e não podem ser
+            // descartadas; a ocupação pode começar acima da capacidade, e novas mensagens são recusadas até a descarga
+            ocupacao.addAndGet(recuperadas.size());
+            return diarioAberto;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível abrir o diário de ingestão em " + configuracao.getDiretorio(), e);
+        }
+    }
+
+    /**
+     * Enfileira a mensagem, que já deve estar validada e com o ID atribuído. Com o diário habilitado, retorna
+     * somente depois que a mensagem estiver no disco.
+     *
+     * @return {@code false} quando a fila ou o diário estão cheios
+     */
+    public boolean adicionar(Mensagem mensagem) {
+        if (ocupacao.incrementAndGet() > capacidade) {
+            return recusar();
+        }
+        if (diario == null) {
+            fila.add(new Entrada(mensagem, Situacao.SINCRONIZADA));
+            return true;
+        }
+        long sequencia;
+        var entrada = new Entrada(mensagem, Situacao.NO_DIARIO);
+        // a fila precisa ter a mesma ordem do diário, que é confirmado das mensagens mais antigas para as mais novas
+        synchronized (diario) {
+            sequencia = diario.acrescentar(mensagem);
+            if (sequencia < 0) {
+                return recusar();
+            }
+            fila.add(entrada);
+        }
+        try {
+            esperaPeloDiario.record(() -> diario.sincronizar(sequencia));
+        } catch (RuntimeException e) {
+            // o cliente recebe o erro, então a mensagem não pode ser gravada; continua ocupando a fila até ser retirada
+            entrada.situacao = Situacao.CANCELADA;
+            throw e;
+        }
+        entrada.situacao = Situacao.SINCRONIZADA;
+        return true;
+    }
+
+    private boolean recusar() {
+        ocupacao.decrementAndGet();
+        recusadas.increment();
+        return false;
+    }
+
+    public int ocupacao() {
+        return ocupacao.get();
+    }
+
+    /**
+     * Grava as mensagens enfileiradas, em lotes, até esvaziar a fila ou o banco falhar.
+     * No encerramento da aplicação grava o que ainda estiver na fila.
+     */
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${mensagens.ingestao.intervalo-de-descarga:PT0.1S}")
+    public synchronized void descarregar() {
+        while (true) {
+            var lote = pendente.isEmpty() ? retirarLote() : pendente;
+            if (lote.isEmpty() || !gravar(lote)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Para na primeira mensagem que ainda aguarda a sincronização do diário; ela e as seguintes ficam para a próxima
+     * descarga.
+     */
+    private List<Entrada> retirarLote() {
+        var lote = new ArrayList<Entrada>(Math.min(tamanhoDoLote, ocupacao.get()));
+        Entrada entrada;
+        while (lote.size() < tamanhoDoLote && (entrada = fila.peek()) != null && entrada.situacao != Situacao.NO_DIARIO) {
+            lote.add(fila.poll());
+        }
+        return lote;
+    }
+
+    /**
+     * Retorna {@code false} se o banco estiver indisponível; o que não foi gravado fica pendente para a próxima descarga.
+     */
+    private boolean gravar(List<Entrada> lote) {
+        var inicio = System.nanoTime();
+        var mensagens = new ArrayList<Mensagem>(lote.size());
+        for (var entrada : lote) {
+            if (entrada.situacao == Situacao.SINCRONIZADA) {
+                prepararParaInserir(entrada.mensagem);
+                mensagens.add(entrada.mensagem);
+            }
+        }
+        try {
+            if (!mensagens.isEmpty()) {
+                repository.inserirEmLote(mensagens);
+            }
+        } catch (TransientDataAccessException | CannotGetJdbcConnectionException | CannotCreateTransactionException e) {
+            pendente = lote;
+            return false;
+        } catch (DataAccessException e) {
+            return gravarIndividualmente(lote);
+        }
+        tempoDeGravacao.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        concluir(lote.size(), mensagens);
+        return true;
+    }
+
+    /**
+     * Uma mensagem recusada pelo banco (por exemplo, conteúdo maior que a coluna ou ID já gravado) não pode impedir
+     * a gravação das demais do lote.
+     */
+    private boolean gravarIndividualmente(List<Entrada> lote) {
+        var gravadas = new ArrayList<Mensagem>(lote.size());
+        for (int i = 0; i < lote.size(); i++) {
+            if (lote.get(i).situacao == Situacao.CANCELADA) {
+                continue;
+            }
+            var mensagem = lote.get(i).mensagem;
+            prepararParaInserir(mensagem);
+            try {
+                gravadas.add(repository.inserir(mensagem));
+            } catch (TransientDataAccessException | CannotGetJdbcConnectionException | CannotCreateTransactionException e) {
+                concluir(i, gravadas);
+                pendente = new ArrayList<>(lote.subList(i, lote.size()));
+                return false;
+            } catch (DataAccessException e) {
+                descartadas.increment();
+            }
+        }
+        concluir(lote.size(), gravadas);
+        return true;
+    }
+
+    /**
+     * Desfaz o que a tentativa anterior deixou na entidade: com a versão preenchida o Hibernate a trataria como
+     * desanexada e recusaria o {@code persist}.
+     */
+    private static void prepararParaInserir(Mensagem mensagem) {
+        mensagem.setVersao(null);
+        mensagem.setDataCriacao(null);
+    }
+
+    private void concluir(int processadas, List<Mensagem> gravadas) {
+        pendente = Collections.emptyList();
+        ocupacao.addAndGet(-processadas);
+        if (diario != null) {
+            diario.confirmar(processadas);
+        }
+        timeline.registrar(gravadas);
+    }
+
+    private enum Situacao {
+        /**
+         * Escrita no diário, aguardando a sincronização com o disco.
+         */
+        NO_DIARIO,
+        /**
+         * No disco (ou sem o diário): pode ser gravada no banco.
+         */
+        SINCRONIZADA,
+        /**
+         * A sincronização falhou e o cliente recebeu o erro: é apenas confirmada no diário.
+         */
+        CANCELADA
+    }
+
+    private static final class Entrada {
+        private final Mensagem mensagem;
+        private volatile Situacao situacao;
+
+        private Entrada(Mensagem mensagem, Situacao situacao) {
+            this.mensagem = mensagem;
+            this.situacao = situacao;
+        }
+    }
+}
@@ -1,9 +1,16 @@
 package br.com.fiap.api.service;
 
+import br.com.fiap.api.model.EstadoDaMensagem;
 import br.com.fiap.api.model.Mensagem;
+import br.com.fiap.api.model.MensagemCursor;
+import br.com.fiap.api.model.MensagemCursorPage;
+import br.com.fiap.api.model.ResultadoLote;
+import java.util.List;
+import java.util.function.Consumer;
 import java.util.UUID;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 /**
  * TBD.
@@ -12,12 +19,76 @@ public interface MensagemService {
 
     Mensagem registrarMensagem(Mensagem mensagem);
 
+    /**
+     * Valida a mensagem, atribui o ID e a enfileira para gravação em segundo plano.
+     *
+     * @throws br.com.fiap.api.exception.FilaDeIngestaoCheiaException quando a fila de ingestão está cheia
+     */
+    Mensagem enfileirarMensagem(Mensagem mensagem);
+
+    /**
+     * Valida cada mensagem do lote e registra, em uma única transação, apenas as válidas.
+     */
+    ResultadoLote registrarMensagens(List<Mensagem> mensagens);
+
     Mensagem buscarMensagem(UUID id);
 
+    /**
+     * Altera o conteúdo da mensagem. Quando {@code mensagemAtualizada} traz a versão, a alteração só é feita se ela
+     * ainda for a versão atual; a verificação e a gravação são atômicas, então uma alteração concorrente também
+     * resulta em {@link br.com.fiap.api.exception.MensagemDesatualizadaException}.
+     *
+     * @throws br.com.fiap.api.exception.MensagemDesatualizadaException quando a versão informada não é a atual
+     */
     Mensagem alterarMensagem(UUID id, Mensagem mensagemAtualizada);
 
+    /**
+     * Altera o conteúdo da mensagem apenas se ela ainda estiver em um dos {@code estadosAceitos}, ignorando a versão
+     * de {@code mensagemAtualizada}; uma lista vazia nunca corresponde. A verificação e a gravação são atômicas.
+     *
+     * @throws br.com.fiap.api.exception.MensagemDesatualizadaException quando a mensagem não está em nenhum dos estados
+     */
+    Mensagem alterarMensagem(UUID id, Mensagem mensagemAtualizada, List<EstadoDaMensagem> estadosAceitos);
+
     boolean removerMensagem(UUID id);
 
+    /**
+     * Contabiliza um "gostei" na mensagem; o valor é acumulado em memória e gravado no banco periodicamente.
+     */
+    void registrarGostei(UUID id);
+
     Page<Mensagem> listarMensagens(Pageable pageable);
 
+    /**
+     * Versão atual das mensagens, alterada a cada registro, alteração, remoção ou "gostei" gravado; permite responder
+     * às listagens condicionais sem consultar o banco.
+     */
+    String versaoDasMensagens();
+
+    /**
+     * Lista as mensagens como {@link #listarMensagens(Pageable)}, sem a contagem total de registros.
+     */
+    Slice<Mensagem> listarMensagensSemTotal(Pageable pageable);
+
+    /**
+     * Busca as mensagens cujo usuário ou conteúdo contenham os termos informados, ordenadas por relevância.
+     */
+    Page<Mensagem> buscarMensagens(String termos, Pageable pageable);
+
+    /**
+     * Lista as mensagens mais recentes a partir do cursor informado (ou do início, quando nulo),
+     * sem executar a contagem total de registros.
+     */
+    MensagemCursorPage listarMensagens(MensagemCursor cursor, int size);
+
+    /**
+     * Lista as mensagens mais recentes do usuário a partir do cursor informado (ou do início, quando nulo).
+     */
+    MensagemCursorPage listarMensagensDoUsuario(String usuario, MensagemCursor cursor, int size);
+
+    /**
+     * Entrega todas as mensagens ao consumidor à medida que são lidas do banco, sem carregá-las de uma vez.
+     */
+    void exportarMensagens(Consumer<Mensagem> consumidor);
+
 }
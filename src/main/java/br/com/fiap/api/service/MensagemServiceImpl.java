@@ -1,52 +1,247 @@
 package br.com.fiap.api.service;
 
+import br.com.fiap.api.config.CacheConfig;
+import br.com.fiap.api.config.MetricsConfig;
+import br.com.fiap.api.exception.FilaDeIngestaoCheiaException;
+import br.com.fiap.api.exception.MensagemDesatualizadaException;
 import br.com.fiap.api.exception.MensagemNotFoundException;
+import br.com.fiap.api.model.EstadoDaMensagem;
 import br.com.fiap.api.model.Mensagem;
+import br.com.fiap.api.model.MensagemCursor;
+import br.com.fiap.api.model.MensagemCursorPage;
+import br.com.fiap.api.model.ResultadoLote;
 import br.com.fiap.api.repository.MensagemRepository;
+import br.com.fiap.api.util.UuidV7;
+import io.micrometer.core.annotation.Counted;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.annotation.Profile;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.validation.ConstraintViolation;
+import javax.validation.ConstraintViolationException;
+import javax.validation.Validator;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Service
+@Profile("!reactive")
 @RequiredArgsConstructor
+@Timed(value = MetricsConfig.METRICA_SERVICO, description = "Tempo de execução das operações do serviço de mensagens", histogram = true)
 public class MensagemServiceImpl implements MensagemService {
 
     private final MensagemRepository repository;
+    private final MensagemTimeline timeline;
+    private final Validator validator;
+    private final ContadorDeGostei contadorDeGostei;
+    private final FilaDeIngestao filaDeIngestao;
 
     @Override
     public Mensagem registrarMensagem(Mensagem mensagem) {
-        mensagem.setId(UUID.randomUUID());
-        return repository.save(mensagem);
+        mensagem.setId(UuidV7.gerar());
+        mensagem.setVersao(null);
+        var mensagemRegistrada = repository.inserir(mensagem);
+        timeline.registrar(mensagemRegistrada);
+        return mensagemRegistrada;
     }
 
     @Override
+    public Mensagem enfileirarMensagem(Mensagem mensagem) {
+        var violacoes = validator.validate(mensagem);
+        if (!violacoes.isEmpty()) {
+            throw new ConstraintViolationException(violacoes);
+        }
+        mensagem.setId(UuidV7.gerar());
+        mensagem.setVersao(null);
+        // a resposta traz apenas o que o diário preserva: a data de criação é atribuída na gravação, e uma mensagem
+        // nova não tem "gostei", mesmo que o cliente os envie
+        mensagem.setDataCriacao(null);
+        mensagem.setGostei(0);
+        // a fila recebe uma cópia, pois a mensagem retornada ainda será serializada na resposta
+        if (!filaDeIngestao.adicionar(mensagem.toBuilder().build())) {
+            throw new FilaDeIngestaoCheiaException("A fila de mensagens está cheia, tente novamente mais tarde");
+        }
+        return mensagem;
+    }
+
+    @Override
+    @Transactional
+    public ResultadoLote registrarMensagens(List<Mensagem> mensagens) {
+        var resultado = ResultadoLote.builder();
+        var validas = new ArrayList<Mensagem>(mensagens.size());
+        for (int i = 0; i < mensagens.size(); i++) {
+            var mensagem = mensagens.get(i);
+            if (mensagem == null) {
+                // um "null" no JSON do lote não passa pelo validator, que não aceita objetos nulos
+                resultado.item(ResultadoLote.Item.builder()
+                        .indice(i)
+                        .situacao(ResultadoLote.Situacao.REJEITADA)
+                        .erro("a mensagem não pode ser nula")
+                        .build());
+                continue;
+            }
+            var violacoes = validator.validate(mensagem);
+            if (violacoes.isEmpty()) {
+                mensagem.setId(UuidV7.gerar());
+                mensagem.setVersao(null);
+                validas.add(mensagem);
+                resultado.item(ResultadoLote.Item.builder()
+                        .indice(i)
+                        .situacao(ResultadoLote.Situacao.REGISTRADA)
+                        .id(mensagem.getId())
+                        .build());
+            } else {
+                resultado.item(ResultadoLote.Item.builder()
+                        .indice(i)
+                        .situacao(ResultadoLote.Situacao.REJEITADA)
+                        .erros(violacoes.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.toList()))
+                        .build());
+            }
+        }
+        if (!validas.isEmpty()) {
+            repository.inserirEmLote(validas);
+            timeline.registrar(validas);
+        }
+        return resultado
+                .total(mensagens.size())
+                .registradas(validas.size())
+                .rejeitadas(mensagens.size() - validas.size())
+                .build();
+    }
+
+    @Override
+    @Cacheable(CacheConfig.CACHE_MENSAGENS)
+    @Counted(value = MetricsConfig.METRICA_ERROS, recordFailuresOnly = true)
     public Mensagem buscarMensagem(UUID id) {
-        return repository.findById(id).orElseThrow(() -> new MensagemNotFoundException("Mensagem não encontrada"));
+        return repository.buscarMensagem(id).orElseThrow(() -> new MensagemNotFoundException("Mensagem não encontrada"));
     }
 
     @Override
+    @Transactional
+    @CacheEvict(value = CacheConfig.CACHE_MENSAGENS, key = "#id")
+    @Counted(value = MetricsConfig.METRICA_ERROS, recordFailuresOnly = true)
     public Mensagem alterarMensagem(UUID id, Mensagem mensagemAtualizada) {
-        var mensagem = buscarMensagem(id);
-        if (!mensagem.getId().equals(mensagemAtualizada.getId())) {
+        var versao = mensagemAtualizada.getVersao();
+        return alterar(id, mensagemAtualizada, versao == null ? null : List.of(EstadoDaMensagem.daVersao(versao)));
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(value = CacheConfig.CACHE_MENSAGENS, key = "#id")
+    @Counted(value = MetricsConfig.METRICA_ERROS, recordFailuresOnly = true)
+    public Mensagem alterarMensagem(UUID id, Mensagem mensagemAtualizada, List<EstadoDaMensagem> estadosAceitos) {
+        return alterar(id, mensagemAtualizada, estadosAceitos);
+    }
+
+    private Mensagem alterar(UUID id, Mensagem mensagemAtualizada, List<EstadoDaMensagem> estadosAceitos) {
+        // a mensagem só é consultada à parte quando a alteração é recusada, para escolher o erro
+        if (!id.equals(mensagemAtualizada.getId())) {
+            exigirMensagem(id);
             throw new MensagemNotFoundException("Mensagem atualizada não apresenta o ID correto");
         }
-        mensagem.setConteudo(mensagemAtualizada.getConteudo());
-        return repository.save(mensagem);
+        var violacoes = validator.validateProperty(mensagemAtualizada, "conteudo");
+        if (!violacoes.isEmpty()) {
+            exigirMensagem(id);
+            throw new ConstraintViolationException(violacoes);
+        }
+        var mensagemAlterada = repository.alterarConteudo(id, mensagemAtualizada.getConteudo(), estadosAceitos);
+        if (mensagemAlterada.isEmpty()) {
+            exigirMensagem(id);
+            throw new MensagemDesatualizadaException("A mensagem foi alterada desde a versão informada");
+        }
+        timeline.alterar(mensagemAlterada.get());
+        return mensagemAlterada.get();
     }
 
     @Override
+    @Transactional
+    @CacheEvict(value = CacheConfig.CACHE_MENSAGENS, key = "#id")
+    @Counted(value = MetricsConfig.METRICA_ERROS, recordFailuresOnly = true)
     public boolean removerMensagem(UUID id) {
-        var mensagens = listarMensagens(Pageable.unpaged());
-        buscarMensagem(id);
-        repository.deleteById(id);
+        if (repository.remover(id) == 0) {
+            throw new MensagemNotFoundException("Mensagem não encontrada");
+        }
+        timeline.remover(id);
         return true;
     }
 
+    @Override
+    public void registrarGostei(UUID id) {
+        contadorDeGostei.incrementar(id);
+    }
+
     @Override
     public Page<Mensagem> listarMensagens(Pageable pageable) {
-        return repository.listarMensagens(pageable);
+        return timeline.obterPagina(pageable).orElseGet(() -> repository.listarMensagens(pageable));
+    }
+
+    @Override
+    public String versaoDasMensagens() {
+        return timeline.versao();
+    }
+
+    @Override
+    public Slice<Mensagem> listarMensagensSemTotal(Pageable pageable) {
+        return timeline.obterPagina(pageable)
+                .<Slice<Mensagem>>map(pagina -> new SliceImpl<>(pagina.getContent(), pageable, pagina.hasNext()))
+                .orElseGet(() -> repository.listarMensagensSemTotal(pageable));
+    }
+
+    @Override
+    public Page<Mensagem> buscarMensagens(String termos, Pageable pageable) {
+        if (termos == null || termos.isBlank()) {
+            throw new IllegalArgumentException("O termo de busca não pode estar vazio");
+        }
+        return repository.buscarMensagens(termos.trim(), pageable);
+    }
+
+    @Override
+    public MensagemCursorPage listarMensagens(MensagemCursor cursor, int size) {
+        var pageable = paginaComExcedente(size);
+        var mensagens = cursor == null
+                ? repository.listarMensagensRecentes(pageable)
+                : repository.listarMensagensAnteriores(cursor.getDataCriacaoComoDate(), cursor.getId(), pageable);
+        return MensagemCursorPage.de(mensagens, size, cursor == null);
+    }
+
+    @Override
+    public MensagemCursorPage listarMensagensDoUsuario(String usuario, MensagemCursor cursor, int size) {
+        var pageable = paginaComExcedente(size);
+        var mensagens = cursor == null
+                ? repository.listarMensagensRecentesDoUsuario(usuario, pageable)
+                : repository.listarMensagensAnterioresDoUsuario(usuario, cursor.getDataCriacaoComoDate(), cursor.getId(), pageable);
+        return MensagemCursorPage.de(mensagens, size, cursor == null);
+    }
+
+    @Override
+    public void exportarMensagens(Consumer<Mensagem> consumidor) {
+        repository.percorrerMensagens(consumidor);
+    }
+
+    private void exigirMensagem(UUID id) {
+        if (!repository.existsById(id)) {
+            throw new MensagemNotFoundException("Mensagem não encontrada");
+        }
+    }
+
+    /**
+     * Busca um registro além do tamanho da página para saber se existe uma próxima página.
+     */
+    private static Pageable paginaComExcedente(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("O tamanho da página deve ser maior que zero");
+        }
+        return PageRequest.of(0, size + 1);
     }
 }
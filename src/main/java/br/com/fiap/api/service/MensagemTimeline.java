@@ -0,0 +1,266 @@
+package br.com.fiap.api.service;
+
+import br.com.fiap.api.config.MensagensProperties;
+import br.com.fiap.api.model.Mensagem;
+import br.com.fiap.api.model.ResumoDasMensagens;
+import br.com.fiap.api.repository.MensagemRepository;
+import br.com.fiap.api.util.UuidV7;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.UnaryOperator;
+
+/**
+ * Mantém em memória as mensagens mais recentes, na mesma ordem de {@link MensagemRepository#listarMensagens},
+ * para que as primeiras páginas da listagem não precisem consultar o banco.
+ * <p>
+ * As alterações são aplicadas somente após o commit da transação corrente. Como outras instâncias da
+ * aplicação também escrevem no banco, o conteúdo é recarregado após o tempo de validade configurado.
+ * <p>
+ * Junto das mensagens é mantido o {@link ResumoDasMensagens} da tabela, do qual deriva a {@link #versao()}.
+ */
+@Component
+@Profile("!reactive")
+public class MensagemTimeline {
+
+    static final Comparator<Mensagem> ORDENACAO = Comparator
+            .comparing(Mensagem::getDataCriacao, Comparator.reverseOrder())
+            .thenComparing(Mensagem::getId, UuidV7.ORDEM_DO_BANCO.reversed());
+
+    private final MensagemRepository repository;
+    private final int capacidade;
+    private final Duration validade;
+    private final Clock clock;
+
+    private volatile Estado estado;
+    private long geracao;
+
+    @Autowired
+    public MensagemTimeline(MensagemRepository repository, MensagensProperties properties) {
+        this(repository, properties.getTimeline().getCapacidade(), properties.getTimeline().getValidade(), Clock.systemUTC());
+    }
+
+    MensagemTimeline(MensagemRepository repository, int capacidade, Duration validade, Clock clock) {
+        this.repository = repository;
+        this.capacidade = capacidade;
+        this.validade = validade;
+        this.clock = clock;
+    }
+
+    /**
+     * Retorna a página solicitada quando ela está inteiramente contida nas mensagens em memória.
+     * Dentro de uma transação a consulta fica a cargo do banco, que enxerga as alterações ainda não confirmadas.
+     */
+    public Optional<Page<Mensagem>> obterPagina(Pageable pageable) {
+        if (pageable.isUnpaged() || capacidade <= 0 || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return Optional.empty();
+        }
+        var atual = estadoValido();
+        var inicio = pageable.getOffset();
+        var fim = inicio + pageable.getPageSize();
+        var completo = atual.recentes.size() >= atual.resumo.getTotal();
+        if (fim > atual.recentes.size() && !completo) {
+            return Optional.empty();
+        }
+        var conteudo = inicio >= atual.recentes.size()
+                ? Collections.<Mensagem>emptyList()
+                : atual.recentes.subList((int) inicio, (int) Math.min(fim, atual.recentes.size()));
+        return Optional.of(new PageImpl<>(conteudo, pageable, atual.resumo.getTotal()));
+    }
+
+    public void registrar(Mensagem mensagem) {
+        var copia = mensagem.toBuilder().build();
+        aposCommit(() -> atualizar(atual -> {
+            if (indice(atual.recentes, copia.getId()) >= 0) {
+                return atual;
+            }
+            var recentes = new ArrayList<>(atual.recentes);
+            var posicao = Collections.binarySearch(recentes, copia, ORDENACAO);
+            recentes.add(posicao < 0 ? -posicao - 1 : posicao, copia);
+            if (recentes.size() > capacidade) {
+                recentes.remove(recentes.size() - 1);
+            }
+            return atual.com(recentes, atual.resumo.somar(1, versao(copia), copia.getGostei()));
+        }));
+    }
+
+    /**
+     * Acrescenta um lote recém-gravado, mantendo apenas as mensagens mais recentes; evita recarregar a timeline
+     * (e contar a tabela) a cada lote da ingestão.
+     */
+    public void registrar(List<Mensagem> mensagens) {
+        if (mensagens.isEmpty()) {
+            return;
+        }
+        var copias = new ArrayList<Mensagem>(mensagens.size());
+        mensagens.forEach(mensagem -> copias.add(mensagem.toBuilder().build()));
+        aposCommit(() -> atualizar(atual -> {
+            var ids = new HashSet<UUID>();
+            atual.recentes.forEach(mensagem -> ids.add(mensagem.getId()));
+            var recentes = new ArrayList<>(atual.recentes);
+            var resumo = atual.resumo;
+            for (var copia : copias) {
+                if (ids.add(copia.getId())) {
+                    recentes.add(copia);
+                    resumo = resumo.somar(1, versao(copia), copia.getGostei());
+                }
+            }
+            recentes.sort(ORDENACAO);
+            return atual.com(new ArrayList<>(recentes.subList(0, Math.min(capacidade, recentes.size()))), resumo);
+        }));
+    }
+
+    public void alterar(Mensagem mensagem) {
+        var copia = mensagem.toBuilder().build();
+        aposCommit(() -> atualizar(atual -> {
+            // cada alteração incrementa a versão em um, mesmo a de mensagens fora da timeline
+            var resumo = atual.resumo.somar(0, 1, 0);
+            var posicao = indice(atual.recentes, copia.getId());
+            if (posicao < 0) {
+                return atual.com(atual.recentes, resumo);
+            }
+            var recentes = new ArrayList<>(atual.recentes);
+            recentes.set(posicao, copia);
+            return atual.com(recentes, resumo);
+        }));
+    }
+
+    public void adicionarGostei(UUID id, int quantidade) {
+        aposCommit(() -> atualizar(atual -> {
+            var resumo = atual.resumo.somar(0, 0, quantidade);
+            var posicao = indice(atual.recentes, id);
+            if (posicao < 0) {
+                return atual.com(atual.recentes, resumo);
+            }
+            var recentes = new ArrayList<>(atual.recentes);
+            var mensagem = recentes.get(posicao);
+            recentes.set(posicao, mensagem.toBuilder().gostei(mensagem.getGostei() + quantidade).build());
+            return atual.com(recentes, resumo);
+        }));
+    }
+
+    public void remover(UUID id) {
+        aposCommit(() -> atualizar(atual -> {
+            var recentes = new ArrayList<>(atual.recentes);
+            var posicao = indice(recentes, id);
+            // fora da timeline a versão e o "gostei" da mensagem removida são desconhecidos; basta a quantidade mudar
+            var resumo = posicao < 0
+                    ? atual.resumo.somar(-1, 0, 0)
+                    : atual.resumo.somar(-1, -versao(recentes.get(posicao)), -recentes.get(posicao).getGostei());
+            if (posicao >= 0) {
+                recentes.remove(posicao);
+            }
+            if (resumo.getTotal() < recentes.size()) {
+                resumo = new ResumoDasMensagens(recentes.size(), resumo.getVersoes(), resumo.getGosteis());
+            }
+            // sem mensagens suficientes para as primeiras páginas, recarrega na próxima leitura
+            if (recentes.size() < capacidade / 2 && resumo.getTotal() > recentes.size()) {
+                return null;
+            }
+            return atual.com(recentes, resumo);
+        }));
+    }
+
+    /**
+     * Identifica o estado das mensagens, para as ETags das listagens: quantidade, somas das versões e dos "gostei" e a
+     * mensagem mais recente. Deriva apenas do banco e das escritas confirmadas nesta instância, então instâncias que
+     * carregaram o mesmo estado respondem com a mesma versão; as escritas de outras instâncias são percebidas na
+     * próxima carga, após o tempo de validade. Deve ser obtida antes da consulta, para que o resultado de uma escrita
+     * concorrente nunca fique associado à versão anterior.
+     */
+    public String versao() {
+        var atual = estadoValido();
+        var resumo = atual.resumo;
+        var versao = resumo.getTotal() + "-" + resumo.getVersoes() + "-" + resumo.getGosteis();
+        return atual.recentes.isEmpty() ? versao : versao + "-" + atual.recentes.get(0).getId();
+    }
+
+    private Estado estadoValido() {
+        var atual = estado;
+        if (atual != null && atual.expiraEm.isAfter(clock.instant())) {
+            return atual;
+        }
+        long geracaoInicial;
+        synchronized (this) {
+            geracaoInicial = geracao;
+        }
+        var recentes = capacidade > 0
+                ? repository.listarMensagensRecentes(PageRequest.of(0, capacidade))
+                : Collections.<Mensagem>emptyList();
+        var carregado = new Estado(Collections.unmodifiableList(new ArrayList<>(recentes)),
+                repository.resumirMensagens(), clock.instant().plus(validade));
+        synchronized (this) {
+            // uma escrita concorrente durante a carga torna o resultado obsoleto
+            if (geracao == geracaoInicial) {
+                estado = carregado;
+            }
+        }
+        return carregado;
+    }
+
+    private synchronized void atualizar(UnaryOperator<Estado> operacao) {
+        geracao++;
+        if (estado != null) {
+            estado = operacao.apply(estado);
+        }
+    }
+
+    private static long versao(Mensagem mensagem) {
+        return mensagem.getVersao() == null ? 0 : mensagem.getVersao();
+    }
+
+    private static int indice(List<Mensagem> mensagens, UUID id) {
+        for (int i = 0; i < mensagens.size(); i++) {
+            if (mensagens.get(i).getId().equals(id)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void aposCommit(Runnable acao) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    acao.run();
+                }
+            });
+        } else {
+            acao.run();
+        }
+    }
+
+    private static final class Estado {
+        private final List<Mensagem> recentes;
+        private final ResumoDasMensagens resumo;
+        private final Instant expiraEm;
+
+        private Estado(List<Mensagem> recentes, ResumoDasMensagens resumo, Instant expiraEm) {
+            this.recentes = recentes;
+            this.resumo = resumo;
+            this.expiraEm = expiraEm;
+        }
+
+        private Estado com(List<Mensagem> recentes, ResumoDasMensagens resumo) {
+            return new Estado(Collections.unmodifiableList(recentes), resumo, expiraEm);
+        }
+    }
+}
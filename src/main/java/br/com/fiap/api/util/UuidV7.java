@@ -0,0 +1,49 @@
+package br.com.fiap.api.util;
+
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gera UUIDs versão 7 (RFC 9562): 48 bits de timestamp em milissegundos, seguidos de um contador de 12 bits
+ * e 62 bits aleatórios. IDs gerados em sequência são crescentes, o que mantém as inserções no final do
+ * índice da chave primária em vez de espalhá-las por toda a árvore.
+ */
+public final class UuidV7 {
+
+    /**
+     * Ordem usada pelo PostgreSQL e pelo H2 ao comparar colunas {@code uuid}: bytes sem sinal.
+     * {@link UUID#compareTo} compara os bits como números com sinal e diverge dessa ordem.
+     */
+    public static final Comparator<UUID> ORDEM_DO_BANCO = Comparator
+            .comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+            .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
+    private static final long VERSAO = 0x7000L;
+    private static final long VARIANTE = 0x8000000000000000L;
+    private static final long MASCARA_ALEATORIA = 0x3FFFFFFFFFFFFFFFL;
+    private static final int BITS_CONTADOR = 12;
+
+    private static final UuidV7 PADRAO = new UuidV7();
+
+    /**
+     * Último par (timestamp, contador) emitido. Quando o contador de 12 bits se esgota dentro do mesmo
+     * milissegundo, o excedente avança o timestamp, preservando a ordem.
+     */
+    private final AtomicLong ultimo = new AtomicLong();
+
+    UuidV7() {
+    }
+
+    public static UUID gerar() {
+        return PADRAO.proximo(System.currentTimeMillis());
+    }
+
+    UUID proximo(long epochMillis) {
+        var sequencia = ultimo.accumulateAndGet(epochMillis << BITS_CONTADOR, (anterior, atual) -> Math.max(atual, anterior + 1));
+        var mostSignificantBits = (sequencia >>> BITS_CONTADOR) << 16 | VERSAO | (sequencia & 0xFFFL);
+        var leastSignificantBits = ThreadLocalRandom.current().nextLong() & MASCARA_ALEATORIA | VARIANTE;
+        return new UUID(mostSignificantBits, leastSignificantBits);
+    }
+}
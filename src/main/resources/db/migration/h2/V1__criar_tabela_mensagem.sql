@@ -0,0 +1,14 @@
+-- mesmo schema de db/migration/postgresql, sem o índice de busca textual, que não existe no H2
+CREATE TABLE mensagem
+(
+    id           UUID         NOT NULL,
+    usuario      VARCHAR(255) NOT NULL,
+    conteudo     VARCHAR(255) NOT NULL,
+    data_criacao TIMESTAMP,
+    gostei       INTEGER      NOT NULL DEFAULT 0,
+    CONSTRAINT pk_mensagem PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_mensagem_data_criacao_id ON mensagem (data_criacao DESC, id DESC);
+
+CREATE INDEX idx_mensagem_usuario_data_criacao_id ON mensagem (usuario, data_criacao DESC, id DESC);
@@ -0,0 +1,2 @@
+-- controle de concorrência otimista (@Version): incrementada a cada alteração do conteúdo
+ALTER TABLE mensagem ADD COLUMN versao BIGINT NOT NULL DEFAULT 0;
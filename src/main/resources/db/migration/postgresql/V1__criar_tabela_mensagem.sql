@@ -0,0 +1,18 @@
+CREATE TABLE mensagem
+(
+    id           UUID         NOT NULL,
+    usuario      VARCHAR(255) NOT NULL,
+    conteudo     VARCHAR(255) NOT NULL,
+    data_criacao TIMESTAMP,
+    gostei       INTEGER      NOT NULL DEFAULT 0,
+    CONSTRAINT pk_mensagem PRIMARY KEY (id)
+);
+
+-- listagem paginada e por cursor: ORDER BY data_criacao DESC, id DESC
+CREATE INDEX idx_mensagem_data_criacao_id ON mensagem (data_criacao DESC, id DESC);
+
+-- listagem das mensagens de um usuário
+CREATE INDEX idx_mensagem_usuario_data_criacao_id ON mensagem (usuario, data_criacao DESC, id DESC);
+
+-- busca textual; a expressão precisa ser idêntica à usada em MensagemRepositoryCustomImpl
+CREATE INDEX idx_mensagem_busca ON mensagem USING GIN (to_tsvector('portuguese', usuario || ' ' || conteudo));
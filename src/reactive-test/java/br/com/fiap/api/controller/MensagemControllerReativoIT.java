@@ -0,0 +1,359 @@
+package br.com.fiap.api.controller;
+
+import br.com.fiap.api.model.Mensagem;
+import io.restassured.RestAssured;
+import org.hamcrest.MatcherAssert;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.UUID;
+
+import static br.com.fiap.api.util.MensagemHelper.gerarMensagem;
+import static io.restassured.RestAssured.given;
+import static io.restassured.RestAssured.when;
+import static io.restassured.module.jsv.JsonSchemaValidator.matchesJsonSchemaInClasspath;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasSize;
+
+/**
+ * Executa os mesmos contratos de {@link MensagemControllerIT} na variante reativa. O banco H2 em memória
+ * é compartilhado entre o JDBC (migrações do Flyway) e o R2DBC.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:reativo;DB_CLOSE_DELAY=-1",
+        "spring.r2dbc.url=r2dbc:h2:mem:///reativo;DB_CLOSE_DELAY=-1",
+        "spring.r2dbc.username=root",
+        "spring.r2dbc.password=toor"
+})
+@ActiveProfiles({"test", "reactive"})
+public class MensagemControllerReativoIT {
+
+    @LocalServerPort
+    private int port;
+
+    private final String PATH_JSON_SCHEMA_MENSAGEM = "schemas/mensagem.schema.json";
+    private final String PATH_JSON_SCHEMA_MENSAGEM_PAGE = "schemas/mensagem-page.schema.json";
+    private final String PATH_JSON_SCHEMA_MENSAGEM_SLICE = "schemas/mensagem-slice.schema.json";
+    private final String PATH_JSON_SCHEMA_MENSAGEM_CURSOR_PAGE = "schemas/mensagem-cursor-page.schema.json";
+    private final String PATH_JSON_SCHEMA_ERROR_BAD_REQUEST = "schemas/error-bad-request.schema.json";
+
+    @BeforeEach
+    void setup() {
+        RestAssured.port = port;
+        RestAssured.enableLoggingOfRequestAndResponseIfValidationFails();
+    }
+
+    @Nested
+    class RegistarMensagem {
+        @Test
+        void devePermitirRegistrarMensagem() {
+            // @formatter:off
+            given()
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .body(gerarMensagem())
+            .when()
+                .post("/mensagens")
+            .then()
+                .statusCode(HttpStatus.CREATED.value())
+                .body(matchesJsonSchemaInClasspath(PATH_JSON_SCHEMA_MENSAGEM));
+            // @formatter:on
+        }
+
+        @Test
+        void deveGerarExcecao_QuandoRegistrarMensagem_PayloadXML() {
+            var xmlPayload = "<mensagem><usuario>Ana</usuario><conteudo>Mensagem do Conteudo</conteudo></mensagem>";
+
+            // @formatter:off
+            given()
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .body(xmlPayload)
+            .when()
+                .post("/mensagens")
+            .then()
+                .statusCode(HttpStatus.BAD_REQUEST.value())
+                .body(matchesJsonSchemaInClasspath(PATH_JSON_SCHEMA_ERROR_BAD_REQUEST))
+                .body("error", equalTo("Bad Request"))
+                .body("path", equalTo("/mensagens"));
+            // @formatter:on
+        }
+    }
+
+    @Nested
+    class BuscarMensagem {
+        @Test
+        void devePermitirBuscarMensagem() {
+            var id = registrarMensagem(gerarMensagem()).getId();
+
+            // @formatter:off
+            when()
+                .get("/mensagens/{id}", id)
+            .then()
+                .statusCode(HttpStatus.OK.value())
+                .body(matchesJsonSchemaInClasspath(PATH_JSON_SCHEMA_MENSAGEM))
+                .body("id", equalTo(id.toString()));
+            // @formatter:on
+        }
+
+        @Test
+        void deveGerarExcecao_QuandoBuscarMensagem_IdNaoExiste() {
+            // @formatter:off
+            when()
+                .get("/mensagens/{id}", UUID.fromString("e4dba38f-31b4-45a4-8ed9-cc53aa97d8a3"))
+            .then()
+                .statusCode(HttpStatus.BAD_REQUEST.value())
+                .body(equalTo("Mensagem não encontrada"));
+            // @formatter:on
+        }
+    }
+
+    @Nested
+    class AlterarMensagem {
+        @Test
+        void devePermitirAlterarMensagem() {
+            var mensagem = registrarMensagem(gerarMensagem());
+            mensagem.setConteudo("conteúdo alterado");
+
+            // @formatter:off
+            given()
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .body(mensagem)
+            .when()
+                .put("/mensagens/{id}", mensagem.getId())
+            .then()
+                .statusCode(HttpStatus.ACCEPTED.value())
+                .body(matchesJsonSchemaInClasspath(PATH_JSON_SCHEMA_MENSAGEM))
+                .body("conteudo", equalTo("conteúdo alterado"));
+            when()
+                .get("/mensagens/{id}", mensagem.getId())
+            .then()
+                .body("conteudo", equalTo("conteúdo alterado"));
+            // @formatter:on
+        }
+
+        @Test
+        void deveGerarExcecao_QuandoAlterarMensagem_IdPayloadDiferente() {
+            var id = registrarMensagem(gerarMensagem()).getId();
+            var mensagem = gerarMensagem().toBuilder().id(UUID.randomUUID()).build();
+
+            // @formatter:off
+            given()
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .body(mensagem)
+            .when()
+                .put("/mensagens/{id}", id)
+            .then()
+                .statusCode(HttpStatus.BAD_REQUEST.value())
+                .body(equalTo("Mensagem atualizada não apresenta o ID correto"));
+            // @formatter:on
+        }
+
+        @Test
+        void deveGerarExcecao_QuandoAlterarMensagem_VersaoDesatualizada() {
+            var mensagem = registrarMensagem(gerarMensagem());
+            mensagem.setConteudo("primeira alteração");
+
+            // @formatter:off
+            var etag = given()
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .body(mensagem)
+            .when()
+                .put("/mensagens/{id}", mensagem.getId())
+            .then()
+                .statusCode(HttpStatus.ACCEPTED.value())
+                .body("versao", equalTo(1))
+                .extract().header("ETag");
+            given()
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .header("If-Match", etag)
+                .body(mensagem.toBuilder().conteudo("segunda alteração").build())
+            .when()
+                .put("/mensagens/{id}", mensagem.getId())
+            .then()
+                .statusCode(HttpStatus.ACCEPTED.value())
+                .body("versao", equalTo(2));
+            given()
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .header("If-Match", etag)
+                .body(mensagem.toBuilder().conteudo("terceira alteração").build())
+            .when()
+                .put("/mensagens/{id}", mensagem.getId())
+            .then()
+                .statusCode(HttpStatus.PRECONDITION_FAILED.value());
+            when()
+                .get("/mensagens/{id}", mensagem.getId())
+            .then()
+                .body("conteudo", equalTo("segunda alteração"));
+            // @formatter:on
+        }
+
+        @Test
+        void deveGerarExcecao_QuandoAlterarMensagem_IdNaoExiste() {
+            var mensagem = gerarMensagem().toBuilder().id(UUID.randomUUID()).build();
+
+            // @formatter:off
+            given()
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .body(mensagem)
+            .when()
+                .put("/mensagens/{id}", mensagem.getId())
+            .then()
+                .statusCode(HttpStatus.BAD_REQUEST.value())
+                .body(equalTo("Mensagem não encontrada"));
+            // @formatter:on
+        }
+    }
+
+    @Nested
+    class RemoverMensagem {
+        @Test
+        void devePermitirRemoverMensagem() {
+            var id = registrarMensagem(gerarMensagem()).getId();
+
+            // @formatter:off
+            when()
+                .delete("/mensagens/{id}", id)
+            .then()
+                .statusCode(HttpStatus.OK.value())
+                .body(equalTo("mensagem removida"));
+            when()
+                .delete("/mensagens/{id}", id)
+            .then()
+                .statusCode(HttpStatus.BAD_REQUEST.value())
+                .body(equalTo("Mensagem não encontrada"));
+            // @formatter:on
+        }
+    }
+
+    @Nested
+    class ListarMensagens {
+        @Test
+        void devePermitirListarMensagensSemTotal() {
+            // @formatter:off
+            given()
+                .queryParam("semTotal", "true")
+                .queryParam("page", "0")
+                .queryParam("size", "2")
+            .when()
+                .get("/mensagens")
+            .then()
+                .statusCode(HttpStatus.OK.value())
+                .body(matchesJsonSchemaInClasspath(PATH_JSON_SCHEMA_MENSAGEM_SLICE))
+                .body("content", hasSize(2))
+                .body("last", equalTo(false));
+            // @formatter:on
+        }
+
+        @Test
+        void devePermitirListarMensagens() {
+            // @formatter:off
+            given()
+                .queryParam("page", "0")
+                .queryParam("size", "2")
+            .when()
+                .get("/mensagens")
+            .then()
+                .statusCode(HttpStatus.OK.value())
+                .body(matchesJsonSchemaInClasspath(PATH_JSON_SCHEMA_MENSAGEM_PAGE))
+                .body("content", hasSize(2))
+                .body("totalElements", greaterThanOrEqualTo(5));
+            // @formatter:on
+        }
+
+        @Test
+        void devePermitirListarMensagensPorCursor() {
+            // @formatter:off
+            var proximoCursor = given()
+                .queryParam("cursor", "")
+                .queryParam("size", "2")
+            .when()
+                .get("/mensagens")
+            .then()
+                .statusCode(HttpStatus.OK.value())
+                .body(matchesJsonSchemaInClasspath(PATH_JSON_SCHEMA_MENSAGEM_CURSOR_PAGE))
+                .body("first", equalTo(true))
+                .extract().path("nextCursor");
+
+            given()
+                .queryParam("cursor", (String) proximoCursor)
+                .queryParam("size", "2")
+            .when()
+                .get("/mensagens")
+            .then()
+                .statusCode(HttpStatus.OK.value())
+                .body(matchesJsonSchemaInClasspath(PATH_JSON_SCHEMA_MENSAGEM_CURSOR_PAGE))
+                .body("first", equalTo(false))
+                .body("content", hasSize(2));
+            // @formatter:on
+        }
+
+        @Test
+        void devePermitirListarMensagensDoUsuario() {
+            // @formatter:off
+            given()
+                .queryParam("usuario", "Adam")
+            .when()
+                .get("/mensagens")
+            .then()
+                .statusCode(HttpStatus.OK.value())
+                .body(matchesJsonSchemaInClasspath(PATH_JSON_SCHEMA_MENSAGEM_CURSOR_PAGE))
+                .body("content.usuario", everyItem(equalTo("Adam")));
+            // @formatter:on
+        }
+
+        @Test
+        void deveGerarExcecao_QuandoCursorInvalido() {
+            // @formatter:off
+            given()
+                .queryParam("cursor", "invalido")
+            .when()
+                .get("/mensagens")
+            .then()
+                .statusCode(HttpStatus.BAD_REQUEST.value())
+                .body(equalTo("Cursor inválido"));
+            // @formatter:on
+        }
+    }
+
+    @Nested
+    class ExportarMensagens {
+        @Test
+        void devePermitirExportarMensagens() {
+            // @formatter:off
+            var corpo = when()
+                .get("/mensagens/export")
+            .then()
+                .statusCode(HttpStatus.OK.value())
+                .contentType(MensagemController.APPLICATION_NDJSON_VALUE)
+                .extract().asString();
+            // @formatter:on
+
+            var linhas = corpo.split("\n");
+            assertThat(linhas).hasSizeGreaterThanOrEqualTo(5);
+            for (var linha : linhas) {
+                MatcherAssert.assertThat(linha, matchesJsonSchemaInClasspath(PATH_JSON_SCHEMA_MENSAGEM));
+            }
+        }
+    }
+
+    private Mensagem registrarMensagem(Mensagem mensagem) {
+        // @formatter:off
+        return given()
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .body(mensagem)
+            .when()
+                .post("/mensagens")
+            .then()
+                .statusCode(HttpStatus.CREATED.value())
+                .extract().as(Mensagem.class);
+        // @formatter:on
+    }
+}
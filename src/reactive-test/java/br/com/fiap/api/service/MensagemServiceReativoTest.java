@@ -0,0 +1,249 @@
+package br.com.fiap.api.service;
+
+import br.com.fiap.api.exception.MensagemDesatualizadaException;
+import br.com.fiap.api.exception.MensagemNotFoundException;
+import br.com.fiap.api.model.EstadoDaMensagem;
+import br.com.fiap.api.model.Mensagem;
+import br.com.fiap.api.model.MensagemCursor;
+import br.com.fiap.api.repository.MensagemRepositoryReativo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import javax.validation.ConstraintViolationException;
+import javax.validation.Validation;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static br.com.fiap.api.util.MensagemHelper.gerarMensagem;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class MensagemServiceReativoTest {
+
+    private MensagemServiceReativo mensagemService;
+    @Mock
+    private MensagemRepositoryReativo mensagemRepository;
+
+    AutoCloseable mock;
+
+    @BeforeEach
+    void setup() {
+        mock = MockitoAnnotations.openMocks(this);
+        mensagemService = new MensagemServiceReativoImpl(mensagemRepository, Validation.buildDefaultValidatorFactory().getValidator());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        mock.close();
+    }
+
+    @Nested
+    class RegistrarMensagem {
+        @Test
+        void devePermitirRegistrarMensagem() {
+            // Arrange
+            var mensagem = gerarMensagem();
+            when(mensagemRepository.inserir(any(Mensagem.class))).thenAnswer(i -> Mono.just(i.getArgument(0)));
+
+            // Act & Assert
+            StepVerifier.create(mensagemService.registrarMensagem(mensagem))
+                    .assertNext(mensagemRegistrada -> {
+                        assertThat(mensagemRegistrada.getId()).isNotNull();
+                        assertThat(mensagemRegistrada.getDataCriacao()).isNotNull();
+                        assertThat(mensagemRegistrada.getConteudo()).isEqualTo(mensagem.getConteudo());
+                    })
+                    .verifyComplete();
+        }
+
+        @Test
+        void deveGerarExcecao_QuandoMensagemInvalida() {
+            // Arrange
+            var mensagem = Mensagem.builder().conteudo("sem usuário").build();
+
+            // Act & Assert
+            StepVerifier.create(mensagemService.registrarMensagem(mensagem))
+                    .expectError(ConstraintViolationException.class)
+                    .verify();
+            verify(mensagemRepository, never()).inserir(any(Mensagem.class));
+        }
+    }
+
+    @Nested
+    class BuscarMensagem {
+        @Test
+        void deveGerarExcecao_QuandoBuscarMensagem_IdNaoExiste() {
+            // Arrange
+            var id = UUID.randomUUID();
+            when(mensagemRepository.buscar(id)).thenReturn(Mono.empty());
+
+            // Act & Assert
+            StepVerifier.create(mensagemService.buscarMensagem(id))
+                    .expectErrorSatisfies(erro -> assertThat(erro)
+                            .isInstanceOf(MensagemNotFoundException.class)
+                            .hasMessage("Mensagem não encontrada"))
+                    .verify();
+        }
+    }
+
+    @Nested
+    class AlterarMensagem {
+        @Test
+        void devePermitirAlterarMensagem() {
+            // Arrange
+            var id = UUID.randomUUID();
+            var mensagemNova = gerarMensagem().toBuilder().id(id).conteudo("novo conteúdo").versao(0L).build();
+            var mensagemAlterada = mensagemNova.toBuilder().versao(1L).build();
+            when(mensagemRepository.alterarConteudo(id, "novo conteúdo", List.of(EstadoDaMensagem.daVersao(0L)))).thenReturn(Mono.just(mensagemAlterada));
+
+            // Act & Assert
+            StepVerifier.create(mensagemService.alterarMensagem(id, mensagemNova))
+                    .assertNext(mensagem -> {
+                        assertThat(mensagem.getConteudo()).isEqualTo("novo conteúdo");
+                        assertThat(mensagem.getVersao()).isEqualTo(1L);
+                    })
+                    .verifyComplete();
+            verify(mensagemRepository, never()).buscar(any(UUID.class));
+        }
+
+        @Test
+        void deveGerarExcecao_QuandoAlterarMensagem_IdDiferente() {
+            // Arrange
+            var id = UUID.randomUUID();
+            when(mensagemRepository.buscar(id)).thenReturn(Mono.just(gerarMensagem().toBuilder().id(id).build()));
+            var mensagemNova = gerarMensagem().toBuilder().id(UUID.randomUUID()).build();
+
+            // Act & Assert
+            StepVerifier.create(mensagemService.alterarMensagem(id, mensagemNova))
+                    .expectErrorMessage("Mensagem atualizada não apresenta o ID correto")
+                    .verify();
+            verify(mensagemRepository, never()).alterarConteudo(any(UUID.class), anyString(), any());
+        }
+
+        @Test
+        void deveGerarExcecao_QuandoAlterarMensagem_ConteudoVazio() {
+            // Arrange
+            var id = UUID.randomUUID();
+            when(mensagemRepository.buscar(id)).thenReturn(Mono.just(gerarMensagem().toBuilder().id(id).build()));
+            var mensagemNova = gerarMensagem().toBuilder().id(id).conteudo("").build();
+
+            // Act & Assert
+            StepVerifier.create(mensagemService.alterarMensagem(id, mensagemNova))
+                    .expectError(ConstraintViolationException.class)
+                    .verify();
+            verify(mensagemRepository, never()).alterarConteudo(any(UUID.class), anyString(), any());
+        }
+
+        @Test
+        void deveGerarExcecao_QuandoAlterarMensagem_VersaoDesatualizada() {
+            // Arrange
+            var id = UUID.randomUUID();
+            var mensagemNova = gerarMensagem().toBuilder().id(id).conteudo("novo conteúdo").versao(0L).build();
+            when(mensagemRepository.alterarConteudo(id, "novo conteúdo", List.of(EstadoDaMensagem.daVersao(0L)))).thenReturn(Mono.empty());
+            when(mensagemRepository.buscar(id)).thenReturn(Mono.just(mensagemNova.toBuilder().versao(1L).build()));
+
+            // Act & Assert
+            StepVerifier.create(mensagemService.alterarMensagem(id, mensagemNova))
+                    .expectError(MensagemDesatualizadaException.class)
+                    .verify();
+        }
+
+        @Test
+        void deveGerarExcecao_QuandoAlterarMensagem_IdNaoExiste() {
+            // Arrange
+            var id = UUID.randomUUID();
+            var mensagemNova = gerarMensagem().toBuilder().id(id).build();
+            when(mensagemRepository.alterarConteudo(id, mensagemNova.getConteudo(), null)).thenReturn(Mono.empty());
+            when(mensagemRepository.buscar(id)).thenReturn(Mono.empty());
+
+            // Act & Assert
+            StepVerifier.create(mensagemService.alterarMensagem(id, mensagemNova))
+                    .expectErrorMessage("Mensagem não encontrada")
+                    .verify();
+        }
+    }
+
+    @Nested
+    class RemoverMensagem {
+        @Test
+        void devePermitirRemoverMensagem() {
+            // Arrange
+            var id = UUID.randomUUID();
+            when(mensagemRepository.remover(id)).thenReturn(Mono.just(1));
+
+            // Act & Assert
+            StepVerifier.create(mensagemService.removerMensagem(id))
+                    .expectNext(true)
+                    .verifyComplete();
+        }
+
+        @Test
+        void deveGerarExcecao_QuandoRemoverMensagem_IdNaoExiste() {
+            // Arrange
+            var id = UUID.randomUUID();
+            when(mensagemRepository.remover(id)).thenReturn(Mono.just(0));
+
+            // Act & Assert
+            StepVerifier.create(mensagemService.removerMensagem(id))
+                    .expectError(MensagemNotFoundException.class)
+                    .verify();
+        }
+    }
+
+    @Nested
+    class ListarMensagens {
+        @Test
+        void devePermitirListarMensagens() {
+            // Arrange
+            var mensagens = Flux.just(gerarMensagem(), gerarMensagem());
+            when(mensagemRepository.listar(2L, 2)).thenReturn(mensagens);
+            when(mensagemRepository.contar()).thenReturn(Mono.just(7L));
+
+            // Act & Assert
+            StepVerifier.create(mensagemService.listarMensagens(PageRequest.of(1, 2)))
+                    .assertNext(pagina -> {
+                        assertThat(pagina.getContent()).hasSize(2);
+                        assertThat(pagina.getTotalElements()).isEqualTo(7);
+                        assertThat(pagina.getTotalPages()).isEqualTo(4);
+                    })
+                    .verifyComplete();
+        }
+
+        @Test
+        void deveListarMensagensAnteriores_QuandoInformadoCursor() {
+            // Arrange
+            var mensagens = Flux.range(0, 3).map(i -> gerarMensagem().toBuilder().id(UUID.randomUUID()).dataCriacao(new Date()).build());
+            var cursor = MensagemCursor.de(gerarMensagem().toBuilder().id(UUID.randomUUID()).build());
+            when(mensagemRepository.listarAnteriores(any(Date.class), any(UUID.class), anyInt())).thenReturn(mensagens);
+
+            // Act & Assert
+            StepVerifier.create(mensagemService.listarMensagens(cursor, 2))
+                    .assertNext(pagina -> {
+                        assertThat(pagina.getContent()).hasSize(2);
+                        assertThat(pagina.isFirst()).isFalse();
+                        assertThat(pagina.isLast()).isFalse();
+                        assertThat(pagina.getNextCursor()).isNotNull();
+                    })
+                    .verifyComplete();
+            verify(mensagemRepository).listarAnteriores(cursor.getDataCriacaoComoDate(), cursor.getId(), 3);
+        }
+
+        @Test
+        void deveGerarExcecao_QuandoTamanhoDaPaginaInvalido() {
+            StepVerifier.create(mensagemService.listarMensagensDoUsuario("Adam", null, 0))
+                    .expectError(IllegalArgumentException.class)
+                    .verify();
+        }
+    }
+}
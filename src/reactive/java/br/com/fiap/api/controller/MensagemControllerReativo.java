@@ -0,0 +1,127 @@
+package br.com.fiap.api.controller;
+
+import br.com.fiap.api.exception.MensagemDesatualizadaException;
+import br.com.fiap.api.exception.MensagemNotFoundException;
+import br.com.fiap.api.model.Mensagem;
+import br.com.fiap.api.model.MensagemCursor;
+import br.com.fiap.api.model.MensagemCursorPage;
+import br.com.fiap.api.service.MensagemServiceReativo;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * Mesmo contrato de {@link MensagemController}, atendido pelo WebFlux e pelo R2DBC no perfil {@code reactive}.
+ * O registro em lote, a busca textual e o "gostei" continuam disponíveis apenas na variante servlet.
+ */
+@RestController
+@RequestMapping("mensagens")
+@RequiredArgsConstructor
+@Profile("reactive")
+public class MensagemControllerReativo {
+
+    private final MensagemServiceReativo mensagemService;
+
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Mensagem>> registrarMensagem(@RequestBody Mensagem mensagem) {
+        return mensagemService.registrarMensagem(mensagem)
+                .map(mensagemRegistrada -> new ResponseEntity<>(mensagemRegistrada, HttpStatus.CREATED));
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<?>> buscarMensagem(@PathVariable String id) {
+        return Mono.defer(() -> mensagemService.buscarMensagem(UUID.fromString(id)))
+                .<ResponseEntity<?>>map(mensagemObtida -> new ResponseEntity<>(mensagemObtida, HttpStatus.OK))
+                .onErrorResume(MensagemNotFoundException.class, MensagemControllerReativo::badRequest);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Page<Mensagem>>> listarMensagens(@RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "10") int size) {
+        return Mono.defer(() -> mensagemService.listarMensagens(PageRequest.of(page, size)))
+                .map(mensagens -> new ResponseEntity<>(mensagens, HttpStatus.OK));
+    }
+
+    /**
+     * Listagem sem a contagem total, como em {@link MensagemController#listarMensagensSemTotal}.
+     */
+    @GetMapping(params = {"semTotal=true", "!usuario"}, produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Slice<Mensagem>>> listarMensagensSemTotal(@RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "10") int size) {
+        return Mono.defer(() -> mensagemService.listarMensagensSemTotal(PageRequest.of(page, size)))
+                .map(mensagens -> new ResponseEntity<>(mensagens, HttpStatus.OK));
+    }
+
+    /**
+     * Listagem por cursor, como em {@link MensagemController#listarMensagensPorCursor}.
+     */
+    @GetMapping(params = {"cursor", "!usuario"}, produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<?>> listarMensagensPorCursor(@RequestParam String cursor, @RequestParam(defaultValue = "10") int size) {
+        return Mono.defer(() -> mensagemService.listarMensagens(decodificar(cursor), size))
+                .map(MensagemControllerReativo::ok)
+                .onErrorResume(IllegalArgumentException.class, MensagemControllerReativo::badRequest);
+    }
+
+    @GetMapping(params = "usuario", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<?>> listarMensagensDoUsuario(@RequestParam String usuario, @RequestParam(defaultValue = "") String cursor,
+                                                            @RequestParam(defaultValue = "10") int size) {
+        return Mono.defer(() -> mensagemService.listarMensagensDoUsuario(usuario, decodificar(cursor), size))
+                .map(MensagemControllerReativo::ok)
+                .onErrorResume(IllegalArgumentException.class, MensagemControllerReativo::badRequest);
+    }
+
+    /**
+     * Exporta todas as mensagens em NDJSON; cada mensagem é escrita conforme é lida do banco,
+     * no ritmo em que o cliente consome a resposta.
+     */
+    @GetMapping(value = "/export", produces = MensagemController.APPLICATION_NDJSON_VALUE)
+    public Flux<Mensagem> exportarMensagens() {
+        return mensagemService.exportarMensagens();
+    }
+
+    /**
+     * Alteração condicional por {@code If-Match} ou pela {@code versao} no corpo, como em
+     * {@link MensagemController#alterarMensagem}.
+     */
+    @PutMapping(value = "/{id}", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<?>> alterarMensagem(@PathVariable String id, @RequestBody Mensagem mensagem,
+                                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return Mono.defer(() -> ifMatch == null || ifMatch.trim().equals("*")
+                        ? mensagemService.alterarMensagem(UUID.fromString(id), mensagem)
+                        : mensagemService.alterarMensagem(UUID.fromString(id), mensagem,
+                                MensagemController.estadosAceitos(ifMatch)))
+                .<ResponseEntity<?>>map(mensagemAtualizada -> ResponseEntity.status(HttpStatus.ACCEPTED)
+                        .eTag(MensagemController.etag(mensagemAtualizada)).body(mensagemAtualizada))
+                .onErrorResume(MensagemNotFoundException.class, MensagemControllerReativo::badRequest)
+                .onErrorResume(MensagemDesatualizadaException.class, excecao ->
+                        Mono.just(ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(excecao.getMessage())));
+    }
+
+    @DeleteMapping(value = "/{id}")
+    public Mono<ResponseEntity<?>> removerMensagem(@PathVariable String id) {
+        return Mono.defer(() -> mensagemService.removerMensagem(UUID.fromString(id)))
+                .<ResponseEntity<?>>map(removida -> new ResponseEntity<>("mensagem removida", HttpStatus.OK))
+                .onErrorResume(MensagemNotFoundException.class, MensagemControllerReativo::badRequest);
+    }
+
+    private static MensagemCursor decodificar(String cursor) {
+        return cursor.isBlank() ? null : MensagemCursor.decodificar(cursor);
+    }
+
+    private static ResponseEntity<?> ok(MensagemCursorPage mensagens) {
+        return new ResponseEntity<>(mensagens, HttpStatus.OK);
+    }
+
+    private static Mono<ResponseEntity<?>> badRequest(RuntimeException excecao) {
+        return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(excecao.getMessage()));
+    }
+}
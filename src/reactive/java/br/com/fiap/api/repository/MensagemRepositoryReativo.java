@@ -0,0 +1,186 @@
+package br.com.fiap.api.repository;
+
+import br.com.fiap.api.model.EstadoDaMensagem;
+import br.com.fiap.api.model.Mensagem;
+import io.r2dbc.spi.Row;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Acesso à tabela {@code mensagem} pelo R2DBC, com as mesmas consultas de {@link MensagemRepository},
+ * para a variante reativa da API.
+ */
+@Repository
+@Profile("reactive")
+@RequiredArgsConstructor
+public class MensagemRepositoryReativo {
+
+    private static final String COLUNAS = "SELECT id, usuario, conteudo, data_criacao, gostei, versao FROM mensagem ";
+    private static final String RETORNO = "id, usuario, conteudo, data_criacao, gostei, versao";
+    private static final String ORDENACAO = " ORDER BY data_criacao DESC, id DESC LIMIT :limite";
+    /**
+     * Mesma condição de {@link MensagemRepository#listarMensagensAnteriores}: {@code data_criacao <= :dataCriacao}
+     * limita a varredura do índice a partir do cursor.
+     */
+    private static final String ANTERIORES = "data_criacao <= :dataCriacao AND (data_criacao < :dataCriacao OR id < :id)";
+
+    private final DatabaseClient databaseClient;
+
+    public Mono<Mensagem> buscar(UUID id) {
+        return databaseClient.sql(COLUNAS + "WHERE id = :id")
+                .bind("id", id)
+                .map(MensagemRepositoryReativo::paraMensagem)
+                .one();
+    }
+
+    public Mono<Mensagem> inserir(Mensagem mensagem) {
+        return databaseClient.sql("INSERT INTO mensagem (id, usuario, conteudo, data_criacao, gostei, versao) " +
+                        "VALUES (:id, :usuario, :conteudo, :dataCriacao, :gostei, 0)")
+                .bind("id", mensagem.getId())
+                .bind("usuario", mensagem.getUsuario())
+                .bind("conteudo", mensagem.getConteudo())
+                .bind("dataCriacao", paraLocalDateTime(mensagem.getDataCriacao()))
+                .bind("gostei", mensagem.getGostei())
+                .then()
+                .thenReturn(mensagem.toBuilder().versao(0L).build());
+    }
+
+    /**
+     * Altera o conteúdo e incrementa a versão em uma única instrução, que também devolve a mensagem alterada
+     * ({@code RETURNING} no PostgreSQL, {@code FINAL TABLE} nos demais bancos).
+     *
+     * @param estadosAceitos quando informados, a mensagem só é alterada se ainda estiver em um deles
+     * @return a mensagem alterada, ou vazio quando a mensagem não existe ou está em outro estado
+     */
+    public Mono<Mensagem> alterarConteudo(UUID id, String conteudo, List<EstadoDaMensagem> estadosAceitos) {
+        if (estadosAceitos != null && estadosAceitos.isEmpty()) {
+            return Mono.empty();
+        }
+        var alteracao = new StringBuilder("UPDATE mensagem SET conteudo = :conteudo, versao = versao + 1 WHERE id = :id");
+        if (estadosAceitos != null) {
+            for (int i = 0; i < estadosAceitos.size(); i++) {
+                alteracao.append(i == 0 ? " AND (" : " OR ").append("(versao = :versao").append(i);
+                if (estadosAceitos.get(i).getGostei() != null) {
+                    alteracao.append(" AND gostei = :gostei").append(i);
+                }
+                alteracao.append(")");
+            }
+            alteracao.append(")");
+        }
+        var sql = isPostgreSQL()
+                ? alteracao + " RETURNING " + RETORNO
+                : "SELECT " + RETORNO + " FROM FINAL TABLE (" + alteracao + ")";
+        var especificacao = databaseClient.sql(sql)
+                .bind("conteudo", conteudo)
+                .bind("id", id);
+        if (estadosAceitos != null) {
+            for (int i = 0; i < estadosAceitos.size(); i++) {
+                var estado = estadosAceitos.get(i);
+                especificacao = especificacao.bind("versao" + i, estado.getVersao());
+                if (estado.getGostei() != null) {
+                    especificacao = especificacao.bind("gostei" + i, estado.getGostei());
+                }
+            }
+        }
+        return especificacao.map(MensagemRepositoryReativo::paraMensagem).one();
+    }
+
+    /**
+     * @return quantidade de registros removidos: zero quando a mensagem não existe
+     */
+    public Mono<Integer> remover(UUID id) {
+        return databaseClient.sql("DELETE FROM mensagem WHERE id = :id")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Long> contar() {
+        return databaseClient.sql("SELECT COUNT(*) FROM mensagem")
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+
+    public Flux<Mensagem> listar(long inicio, int limite) {
+        return databaseClient.sql(COLUNAS + ORDENACAO + " OFFSET :inicio")
+                .bind("limite", limite)
+                .bind("inicio", inicio)
+                .map(MensagemRepositoryReativo::paraMensagem)
+                .all();
+    }
+
+    public Flux<Mensagem> listarRecentes(int limite) {
+        return databaseClient.sql(COLUNAS + ORDENACAO)
+                .bind("limite", limite)
+                .map(MensagemRepositoryReativo::paraMensagem)
+                .all();
+    }
+
+    public Flux<Mensagem> listarAnteriores(Date dataCriacao, UUID id, int limite) {
+        return databaseClient.sql(COLUNAS + "WHERE " + ANTERIORES + ORDENACAO)
+                .bind("dataCriacao", paraLocalDateTime(dataCriacao))
+                .bind("id", id)
+                .bind("limite", limite)
+                .map(MensagemRepositoryReativo::paraMensagem)
+                .all();
+    }
+
+    public Flux<Mensagem> listarRecentesDoUsuario(String usuario, int limite) {
+        return databaseClient.sql(COLUNAS + "WHERE usuario = :usuario" + ORDENACAO)
+                .bind("usuario", usuario)
+                .bind("limite", limite)
+                .map(MensagemRepositoryReativo::paraMensagem)
+                .all();
+    }
+
+    public Flux<Mensagem> listarAnterioresDoUsuario(String usuario, Date dataCriacao, UUID id, int limite) {
+        return databaseClient.sql(COLUNAS + "WHERE usuario = :usuario AND " + ANTERIORES + ORDENACAO)
+                .bind("usuario", usuario)
+                .bind("dataCriacao", paraLocalDateTime(dataCriacao))
+                .bind("id", id)
+                .bind("limite", limite)
+                .map(MensagemRepositoryReativo::paraMensagem)
+                .all();
+    }
+
+    /**
+     * Emite todas as mensagens conforme são lidas; a demanda do assinante controla a leitura do cursor.
+     */
+    public Flux<Mensagem> percorrer() {
+        return databaseClient.sql(COLUNAS)
+                .map(MensagemRepositoryReativo::paraMensagem)
+                .all();
+    }
+
+    private boolean isPostgreSQL() {
+        return "PostgreSQL".equals(databaseClient.getConnectionFactory().getMetadata().getName());
+    }
+
+    private static Mensagem paraMensagem(Row row) {
+        var dataCriacao = row.get("data_criacao", LocalDateTime.class);
+        var gostei = row.get("gostei", Integer.class);
+        return Mensagem.builder()
+                .id(row.get("id", UUID.class))
+                .usuario(row.get("usuario", String.class))
+                .conteudo(row.get("conteudo", String.class))
+                .dataCriacao(dataCriacao == null ? null : Timestamp.valueOf(dataCriacao))
+                .gostei(gostei == null ? 0 : gostei)
+                .versao(row.get("versao", Long.class))
+                .build();
+    }
+
+    private static LocalDateTime paraLocalDateTime(Date data) {
+        // a coluna é TIMESTAMP sem fuso, gravada pelo Hibernate no fuso da JVM
+        return data instanceof Timestamp ? ((Timestamp) data).toLocalDateTime() : new Timestamp(data.getTime()).toLocalDateTime();
+    }
+}
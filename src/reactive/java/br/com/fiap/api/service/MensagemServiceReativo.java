@@ -0,0 +1,41 @@
+package br.com.fiap.api.service;
+
+import br.com.fiap.api.model.EstadoDaMensagem;
+import br.com.fiap.api.model.Mensagem;
+import br.com.fiap.api.model.MensagemCursor;
+import br.com.fiap.api.model.MensagemCursorPage;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Operações de {@link MensagemService} sem bloqueio, para a variante reativa da API (perfil {@code reactive}).
+ */
+public interface MensagemServiceReativo {
+
+    Mono<Mensagem> registrarMensagem(Mensagem mensagem);
+
+    Mono<Mensagem> buscarMensagem(UUID id);
+
+    Mono<Mensagem> alterarMensagem(UUID id, Mensagem mensagemAtualizada);
+
+    Mono<Mensagem> alterarMensagem(UUID id, Mensagem mensagemAtualizada, List<EstadoDaMensagem> estadosAceitos);
+
+    Mono<Boolean> removerMensagem(UUID id);
+
+    Mono<Page<Mensagem>> listarMensagens(Pageable pageable);
+
+    Mono<Slice<Mensagem>> listarMensagensSemTotal(Pageable pageable);
+
+    Mono<MensagemCursorPage> listarMensagens(MensagemCursor cursor, int size);
+
+    Mono<MensagemCursorPage> listarMensagensDoUsuario(String usuario, MensagemCursor cursor, int size);
+
+    Flux<Mensagem> exportarMensagens();
+
+}
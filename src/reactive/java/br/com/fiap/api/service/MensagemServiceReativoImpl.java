@@ -0,0 +1,140 @@
+package br.com.fiap.api.service;
+
+import br.com.fiap.api.exception.MensagemDesatualizadaException;
+import br.com.fiap.api.exception.MensagemNotFoundException;
+import br.com.fiap.api.model.EstadoDaMensagem;
+import br.com.fiap.api.model.Mensagem;
+import br.com.fiap.api.model.MensagemCursor;
+import br.com.fiap.api.model.MensagemCursorPage;
+import br.com.fiap.api.repository.MensagemRepositoryReativo;
+import br.com.fiap.api.util.UuidV7;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.ConstraintViolationException;
+import javax.validation.Validator;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+public class MensagemServiceReativoImpl implements MensagemServiceReativo {
+
+    private final MensagemRepositoryReativo repository;
+    private final Validator validator;
+
+    @Override
+    public Mono<Mensagem> registrarMensagem(Mensagem mensagem) {
+        return Mono.defer(() -> {
+            // sem o Hibernate, a validação que ocorreria no persist é feita aqui
+            var violacoes = validator.validate(mensagem);
+            if (!violacoes.isEmpty()) {
+                return Mono.error(new ConstraintViolationException(violacoes));
+            }
+            mensagem.setId(UuidV7.gerar());
+            mensagem.setDataCriacao(new Date());
+            return repository.inserir(mensagem);
+        });
+    }
+
+    @Override
+    public Mono<Mensagem> buscarMensagem(UUID id) {
+        return repository.buscar(id)
+                .switchIfEmpty(Mono.error(() -> new MensagemNotFoundException("Mensagem não encontrada")));
+    }
+
+    @Override
+    public Mono<Mensagem> alterarMensagem(UUID id, Mensagem mensagemAtualizada) {
+        var versao = mensagemAtualizada.getVersao();
+        return alterarMensagem(id, mensagemAtualizada, versao == null ? null : List.of(EstadoDaMensagem.daVersao(versao)));
+    }
+
+    @Override
+    public Mono<Mensagem> alterarMensagem(UUID id, Mensagem mensagemAtualizada, List<EstadoDaMensagem> estadosAceitos) {
+        return Mono.defer(() -> {
+            // a mensagem só é consultada à parte quando a alteração é recusada, para escolher o erro
+            if (!id.equals(mensagemAtualizada.getId())) {
+                return exigirMensagem(id)
+                        .then(Mono.error(new MensagemNotFoundException("Mensagem atualizada não apresenta o ID correto")));
+            }
+            var violacoes = validator.validateProperty(mensagemAtualizada, "conteudo");
+            if (!violacoes.isEmpty()) {
+                return exigirMensagem(id).then(Mono.error(new ConstraintViolationException(violacoes)));
+            }
+            return repository.alterarConteudo(id, mensagemAtualizada.getConteudo(), estadosAceitos)
+                    .switchIfEmpty(exigirMensagem(id).then(Mono.error(
+                            () -> new MensagemDesatualizadaException("A mensagem foi alterada desde a versão informada"))));
+        });
+    }
+
+    @Override
+    public Mono<Boolean> removerMensagem(UUID id) {
+        return repository.remover(id).flatMap(removidas -> removidas > 0
+                ? Mono.just(true)
+                : Mono.error(new MensagemNotFoundException("Mensagem não encontrada")));
+    }
+
+    @Override
+    public Mono<Page<Mensagem>> listarMensagens(Pageable pageable) {
+        return Mono.zip(repository.listar(pageable.getOffset(), pageable.getPageSize()).collectList(), repository.contar())
+                .map(resultado -> new PageImpl<>(resultado.getT1(), pageable, resultado.getT2()));
+    }
+
+    @Override
+    public Mono<Slice<Mensagem>> listarMensagensSemTotal(Pageable pageable) {
+        var tamanho = pageable.getPageSize();
+        return repository.listar(pageable.getOffset(), tamanho + 1).collectList()
+                .map(mensagens -> new SliceImpl<>(mensagens.subList(0, Math.min(tamanho, mensagens.size())), pageable, mensagens.size() > tamanho));
+    }
+
+    @Override
+    public Mono<MensagemCursorPage> listarMensagens(MensagemCursor cursor, int size) {
+        return Mono.defer(() -> {
+            var limite = limiteComExcedente(size);
+            var mensagens = cursor == null
+                    ? repository.listarRecentes(limite)
+                    : repository.listarAnteriores(cursor.getDataCriacaoComoDate(), cursor.getId(), limite);
+            return mensagens.collectList().map(lista -> MensagemCursorPage.de(lista, size, cursor == null));
+        });
+    }
+
+    @Override
+    public Mono<MensagemCursorPage> listarMensagensDoUsuario(String usuario, MensagemCursor cursor, int size) {
+        return Mono.defer(() -> {
+            var limite = limiteComExcedente(size);
+            var mensagens = cursor == null
+                    ? repository.listarRecentesDoUsuario(usuario, limite)
+                    : repository.listarAnterioresDoUsuario(usuario, cursor.getDataCriacaoComoDate(), cursor.getId(), limite);
+            return mensagens.collectList().map(lista -> MensagemCursorPage.de(lista, size, cursor == null));
+        });
+    }
+
+    @Override
+    public Flux<Mensagem> exportarMensagens() {
+        return repository.percorrer();
+    }
+
+    private Mono<Void> exigirMensagem(UUID id) {
+        return Mono.defer(() -> buscarMensagem(id)).then();
+    }
+
+    /**
+     * Busca um registro além do tamanho da página para saber se existe uma próxima página.
+     */
+    private static int limiteComExcedente(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("O tamanho da página deve ser maior que zero");
+        }
+        return size + 1;
+    }
+}
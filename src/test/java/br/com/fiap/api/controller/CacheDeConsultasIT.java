@@ -0,0 +1,70 @@
+package br.com.fiap.api.controller;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.restassured.RestAssured;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+
+import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+
+/**
+ * Com a timeline reduzida a duas mensagens, as páginas seguintes da listagem são consultadas no banco e devem ser
+ * servidas pelo cache de consultas do Hibernate enquanto a tabela não for alterada.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "mensagens.timeline.capacidade=2")
+@AutoConfigureTestDatabase
+@AutoConfigureMetrics
+@ActiveProfiles("test")
+class CacheDeConsultasIT {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @BeforeEach
+    void setup() {
+        RestAssured.port = port;
+        RestAssured.enableLoggingOfRequestAndResponseIfValidationFails();
+    }
+
+    @Test
+    void deveServirPaginaForaDaTimelineDoCacheDeConsultas() {
+        // Arrange
+        var acertosAntes = acertos();
+        listarSegundaPagina();
+
+        // Act
+        listarSegundaPagina();
+
+        // Assert
+        assertThat(acertos()).isGreaterThan(acertosAntes);
+    }
+
+    private void listarSegundaPagina() {
+        // @formatter:off
+        given()
+            .queryParam("page", 1)
+            .queryParam("size", 2)
+        .when()
+            .get("/mensagens")
+        .then()
+            .statusCode(HttpStatus.OK.value())
+            .body("content", hasSize(2));
+        // @formatter:on
+    }
+
+    private double acertos() {
+        return registry.get("hibernate.cache.query.requests").tag("result", "hit").functionCounter().count();
+    }
+}
@@ -1,15 +1,15 @@
 package br.com.fiap.api.controller;
 
 import br.com.fiap.api.model.Mensagem;
-import br.com.fiap.api.repository.MensagemRepository;
 import br.com.fiap.api.service.MensagemService;
-import br.com.fiap.api.service.MensagemServiceImpl;
 import io.qameta.allure.restassured.AllureRestAssured;
 import io.restassured.RestAssured;
+import org.hamcrest.MatcherAssert;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.server.LocalServerPort;
@@ -19,17 +19,26 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 
 import javax.transaction.Transactional;
+import java.util.Arrays;
 import java.util.UUID;
 
 import static br.com.fiap.api.util.MensagemHelper.gerarMensagem;
 import static io.restassured.RestAssured.given;
 import static io.restassured.RestAssured.when;
 import static io.restassured.module.jsv.JsonSchemaValidator.matchesJsonSchemaInClasspath;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.everyItem;
 import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @AutoConfigureTestDatabase
+@AutoConfigureMetrics
 @Transactional
 @ActiveProfiles("test")
 public class MensagemControllerIT {
@@ -38,18 +47,18 @@ public class MensagemControllerIT {
     private int port;
 
     @Autowired
-    private MensagemRepository repository;
     private MensagemService mensagemService;
 
     private final String PATH_JSON_SCHEMA_MENSAGEM = "schemas/mensagem.schema.json";
     private final String PATH_JSON_SCHEMA_MENSAGEM_PAGE = "schemas/mensagem-page.schema.json";
+    private final String PATH_JSON_SCHEMA_MENSAGEM_SLICE = "schemas/mensagem-slice.schema.json";
+    private final String PATH_JSON_SCHEMA_MENSAGEM_CURSOR_PAGE = "schemas/mensagem-cursor-page.schema.json";
     private final String PATH_JSON_SCHEMA_ERROR_BAD_REQUEST = "schemas/error-bad-request.schema.json";
 
     @BeforeEach
     void setup() {
         RestAssured.port = port;
         RestAssured.enableLoggingOfRequestAndResponseIfValidationFails();
-        mensagemService = new MensagemServiceImpl(repository);
     }
 
     @Nested
@@ -96,6 +105,47 @@ public class MensagemControllerIT {
         }
     }
 
+    @Nested
+    class RegistrarMensagens {
+        @Test
+        void devePermitirRegistrarMensagens() {
+            var mensagens = Arrays.asList(gerarMensagem(), Mensagem.builder().conteudo("sem usuário").build());
+
+            // @formatter:off
+            given()
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .body(mensagens)
+            .when()
+                .post("/mensagens/lote")
+            .then()
+                .statusCode(HttpStatus.CREATED.value())
+                .body("total", equalTo(2))
+                .body("registradas", equalTo(1))
+                .body("rejeitadas", equalTo(1))
+                .body("itens[0].situacao", equalTo("REGISTRADA"))
+                .body("itens[1].situacao", equalTo("REJEITADA"))
+                .body("itens[1].erros[0]", equalTo("usuário não pode estar vazio"));
+            // @formatter:on
+        }
+
+        @Test
+        void deveRejeitarMensagemNula() {
+            // @formatter:off
+            given()
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .body("[null, {\"usuario\": \"Ana\", \"conteudo\": \"mensagem do lote\"}]")
+            .when()
+                .post("/mensagens/lote")
+            .then()
+                .statusCode(HttpStatus.CREATED.value())
+                .body("registradas", equalTo(1))
+                .body("rejeitadas", equalTo(1))
+                .body("itens[0].situacao", equalTo("REJEITADA"))
+                .body("itens[0].erros[0]", equalTo("a mensagem não pode ser nula"));
+            // @formatter:on
+        }
+    }
+
     @Nested
     class BuscarMensagem {
         @Test
@@ -124,6 +174,29 @@ public class MensagemControllerIT {
         }
     }
 
+    @Nested
+    class ExportarMensagens {
+        @Test
+        void devePermitirExportarMensagens() {
+            var totalDeMensagens = mensagemService.listarMensagens(Pageable.unpaged()).getTotalElements();
+
+            // @formatter:off
+            var corpo = when()
+                .get("/mensagens/export")
+            .then()
+                .statusCode(HttpStatus.OK.value())
+                .contentType(MensagemController.APPLICATION_NDJSON_VALUE)
+                .extract().asString();
+            // @formatter:on
+
+            var linhas = corpo.split("\n");
+            assertThat(linhas).hasSize((int) totalDeMensagens);
+            for (var linha : linhas) {
+                MatcherAssert.assertThat(linha, matchesJsonSchemaInClasspath(PATH_JSON_SCHEMA_MENSAGEM));
+            }
+        }
+    }
+
     @Nested
     class AlterarMensagem {
         @Test
@@ -148,6 +221,48 @@ public class MensagemControllerIT {
             // @formatter:on
         }
 
+        @Test
+        void deveGerarExcecao_QuandoAlterarMensagem_ETagDesatualizada() {
+            // @formatter:off
+            String id = given()
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .body(gerarMensagem())
+            .when()
+                .post("/mensagens")
+            .then()
+                .statusCode(HttpStatus.CREATED.value())
+                .body("versao", equalTo(0))
+                .extract().path("id");
+            var etag = when()
+                .get("/mensagens/{id}", id)
+            .then()
+                .statusCode(HttpStatus.OK.value())
+                .extract().header("ETag");
+            var mensagem = Mensagem.builder().id(UUID.fromString(id)).conteudo("primeira alteração").build();
+
+            given()
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .header("If-Match", etag)
+                .body(mensagem)
+            .when()
+                .put("/mensagens/{id}", id)
+            .then()
+                .statusCode(HttpStatus.ACCEPTED.value())
+                .header("ETag", not(etag))
+                .body("versao", equalTo(1));
+
+            given()
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .header("If-Match", etag)
+                .body(mensagem.toBuilder().conteudo("segunda alteração").build())
+            .when()
+                .put("/mensagens/{id}", id)
+            .then()
+                .statusCode(HttpStatus.PRECONDITION_FAILED.value())
+                .body(equalTo("A mensagem foi alterada desde a versão informada"));
+            // @formatter:on
+        }
+
         @Test
         void deveGerarExcecao_QuandoAlterarMensagem_PayloadXML() {
             var xmlPayload = "<mensagem><usuario>Ana</usuario><conteudo>Mensagem do Conteudo</conteudo></mensagem>";
@@ -228,8 +343,90 @@ public class MensagemControllerIT {
         }
     }
 
+    @Nested
+    class RegistrarGostei {
+        @Test
+        void devePermitirRegistrarGostei() {
+            var id = "f1c62001-68ae-441e-a90c-800b3583374d";
+
+            // @formatter:off
+            when()
+                .post("/mensagens/{id}/gostei", id)
+            .then()
+                .statusCode(HttpStatus.ACCEPTED.value())
+                .body(equalTo("gostei registrado"));
+            // @formatter:on
+        }
+
+        @Test
+        void deveGerarExcecao_QuandoRegistrarGostei_IdNaoExiste() {
+            var id = UUID.randomUUID();
+
+            // @formatter:off
+            when()
+                .post("/mensagens/{id}/gostei", id)
+            .then()
+                .statusCode(HttpStatus.BAD_REQUEST.value())
+                .body(equalTo("Mensagem não encontrada"));
+            // @formatter:on
+        }
+    }
+
     @Nested
     class ListarMensagens {
+        @Test
+        void deveResponderNaoModificada_AteRegistrarNovaMensagem() {
+            // @formatter:off
+            var etag = when()
+                .get("/mensagens")
+            .then()
+                .statusCode(HttpStatus.OK.value())
+                .header("ETag", not(nullValue()))
+                .extract().header("ETag");
+
+            given()
+                .header("If-None-Match", etag)
+            .when()
+                .get("/mensagens")
+            .then()
+                .statusCode(HttpStatus.NOT_MODIFIED.value());
+
+            given()
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .body(gerarMensagem())
+            .when()
+                .post("/mensagens")
+            .then()
+                .statusCode(HttpStatus.CREATED.value());
+
+            given()
+                .header("If-None-Match", etag)
+            .when()
+                .get("/mensagens")
+            .then()
+                .statusCode(HttpStatus.OK.value())
+                .header("ETag", not(etag))
+                .body(matchesJsonSchemaInClasspath(PATH_JSON_SCHEMA_MENSAGEM_PAGE));
+            // @formatter:on
+        }
+
+        @Test
+        void devePermitirListarMensagensSemTotal() {
+            // @formatter:off
+            given()
+                .queryParam("semTotal", "true")
+                .queryParam("page", "0")
+                .queryParam("size", "2")
+            .when()
+                .get("/mensagens")
+            .then()
+                .statusCode(HttpStatus.OK.value())
+                .body(matchesJsonSchemaInClasspath(PATH_JSON_SCHEMA_MENSAGEM_SLICE))
+                .body("content", hasSize(2))
+                .body("last", equalTo(false));
+            // @formatter:on
+        }
+
         @Test
         void devePermitirListarMensagens() {
             // @formatter:off
@@ -244,6 +441,30 @@ public class MensagemControllerIT {
             // @formatter:on
         }
 
+        @Test
+        void deveApresentarMensagemRegistradaNaPrimeiraPagina() {
+            // @formatter:off
+            String id = given()
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .body(gerarMensagem())
+            .when()
+                .post("/mensagens")
+            .then()
+                .statusCode(HttpStatus.CREATED.value())
+                .extract().path("id");
+
+            given()
+                .queryParam("page", "0")
+                .queryParam("size", "10")
+            .when()
+                .get("/mensagens")
+            .then()
+                .statusCode(HttpStatus.OK.value())
+                .body(matchesJsonSchemaInClasspath(PATH_JSON_SCHEMA_MENSAGEM_PAGE))
+                .body("content[0].id", equalTo(id));
+            // @formatter:on
+        }
+
         @Test
         void devePermitirListarMensagens_QuandoNaoInformadoPaginacao() {
             // @formatter:off
@@ -256,5 +477,147 @@ public class MensagemControllerIT {
         }
     }
 
+    @Nested
+    class ListarMensagensDoUsuario {
+        @Test
+        void devePermitirListarMensagensDoUsuario_PercorrendoCursor() {
+            var mensagem = gerarMensagem();
+            mensagem.setUsuario("Joana");
+
+            // @formatter:off
+            for (int i = 0; i < 3; i++) {
+                given()
+                    .contentType(MediaType.APPLICATION_JSON_VALUE)
+                    .body(mensagem)
+                .when()
+                    .post("/mensagens")
+                .then()
+                    .statusCode(HttpStatus.CREATED.value());
+            }
+
+            var nextCursor = given()
+                .queryParam("usuario", "Joana")
+                .queryParam("size", "2")
+            .when()
+                .get("/mensagens")
+            .then()
+                .statusCode(HttpStatus.OK.value())
+                .body(matchesJsonSchemaInClasspath(PATH_JSON_SCHEMA_MENSAGEM_CURSOR_PAGE))
+                .body("content.usuario", everyItem(equalTo("Joana")))
+                .body("nextCursor", not(nullValue()))
+                .extract().path("nextCursor");
+
+            given()
+                .queryParam("usuario", "Joana")
+                .queryParam("cursor", (String) nextCursor)
+                .queryParam("size", "2")
+            .when()
+                .get("/mensagens")
+            .then()
+                .statusCode(HttpStatus.OK.value())
+                .body(matchesJsonSchemaInClasspath(PATH_JSON_SCHEMA_MENSAGEM_CURSOR_PAGE))
+                .body("content.usuario", everyItem(equalTo("Joana")))
+                .body("first", equalTo(false))
+                .body("last", equalTo(true));
+            // @formatter:on
+        }
+    }
+
+    @Nested
+    class BuscarMensagens {
+        @Test
+        void devePermitirBuscarMensagens() {
+            // @formatter:off
+            given()
+                .queryParam("q", "xpto")
+            .when()
+                .get("/mensagens/busca")
+            .then()
+                .statusCode(HttpStatus.OK.value())
+                .body(matchesJsonSchemaInClasspath(PATH_JSON_SCHEMA_MENSAGEM_PAGE))
+                .body("content", not(empty()))
+                .body("content.conteudo", everyItem(containsString("xpto")));
+            // @formatter:on
+        }
+
+        @Test
+        void deveGerarExcecao_QuandoTermoDeBuscaVazio() {
+            // @formatter:off
+            when()
+                .get("/mensagens/busca")
+            .then()
+                .statusCode(HttpStatus.BAD_REQUEST.value())
+                .body(equalTo("O termo de busca não pode estar vazio"));
+            // @formatter:on
+        }
+    }
+
+    @Nested
+    class ListarMensagensPorCursor {
+        @Test
+        void devePermitirListarMensagens_PercorrendoCursor() {
+            // @formatter:off
+            var nextCursor = given()
+                .queryParam("cursor", "")
+                .queryParam("size", "2")
+            .when()
+                .get("/mensagens")
+            .then()
+                .statusCode(HttpStatus.OK.value())
+                .body(matchesJsonSchemaInClasspath(PATH_JSON_SCHEMA_MENSAGEM_CURSOR_PAGE))
+                .body("$", not(hasKey("totalElements")))
+                .body("nextCursor", not(nullValue()))
+                .extract().path("nextCursor");
+
+            given()
+                .queryParam("cursor", (String) nextCursor)
+                .queryParam("size", "2")
+            .when()
+                .get("/mensagens")
+            .then()
+                .statusCode(HttpStatus.OK.value())
+                .body(matchesJsonSchemaInClasspath(PATH_JSON_SCHEMA_MENSAGEM_CURSOR_PAGE))
+                .body("first", equalTo(false));
+            // @formatter:on
+        }
+
+        @Test
+        void deveGerarExcecao_QuandoListarMensagens_CursorInvalido() {
+            // @formatter:off
+            given()
+                .queryParam("cursor", "xpto")
+            .when()
+                .get("/mensagens")
+            .then()
+                .statusCode(HttpStatus.BAD_REQUEST.value())
+                .body(equalTo("Cursor inválido"));
+            // @formatter:on
+        }
+    }
+
+    @Nested
+    class Metricas {
+        @Test
+        void deveExporMetricasDoServicoNoFormatoPrometheus() {
+            // @formatter:off
+            when()
+                .get("/mensagens/{id}", UUID.fromString("e4dba38f-31b4-45a4-8ed9-cc53aa97d8a3"))
+            .then()
+                .statusCode(HttpStatus.BAD_REQUEST.value());
+
+            when()
+                .get("/actuator/prometheus")
+            .then()
+                .statusCode(HttpStatus.OK.value())
+                .body(containsString("mensagens_servico_seconds_bucket{"))
+                .body(containsString("operacao=\"buscarMensagem\""))
+                .body(containsString("mensagens_servico_erros_total{"))
+                .body(containsString("exception=\"MensagemNotFoundException\""))
+                .body(containsString("spring_data_repository_invocations_seconds_bucket{"))
+                .body(containsString("jvm_gc_pause_seconds"))
+                .body(containsString("jvm_memory_used_bytes"));
+            // @formatter:on
+        }
+    }
 
 }
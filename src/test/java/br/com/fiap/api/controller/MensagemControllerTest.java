@@ -1,8 +1,15 @@
 package br.com.fiap.api.controller;
 
 
+import br.com.fiap.api.config.MensagensProperties;
+import br.com.fiap.api.exception.FilaDeIngestaoCheiaException;
+import br.com.fiap.api.exception.MensagemDesatualizadaException;
 import br.com.fiap.api.exception.MensagemNotFoundException;
+import br.com.fiap.api.model.EstadoDaMensagem;
 import br.com.fiap.api.model.Mensagem;
+import br.com.fiap.api.model.MensagemCursor;
+import br.com.fiap.api.model.MensagemCursorPage;
+import br.com.fiap.api.model.ResultadoLote;
 import br.com.fiap.api.service.MensagemService;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -13,19 +20,31 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import static br.com.fiap.api.util.MensagemHelper.gerarMensagem;
 import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasKey;
 import static org.hamcrest.Matchers.not;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
+import static org.mockito.Mockito.doAnswer;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -36,12 +55,14 @@ class MensagemControllerTest {
     @Mock
     private MensagemService mensagemService;
 
+    private final MensagensProperties properties = new MensagensProperties();
+
     AutoCloseable mock;
 
     @BeforeEach
     void setup() {
         mock = MockitoAnnotations.openMocks(this);
-        MensagemController mensagemController = new MensagemController(mensagemService);
+        MensagemController mensagemController = new MensagemController(mensagemService, properties, new ObjectMapper());
         mockMvc = MockMvcBuilders.standaloneSetup(mensagemController).addFilter((request, response, chain) -> {
             response.setCharacterEncoding("UTF-8");
             chain.doFilter(request, response);
@@ -78,6 +99,96 @@ class MensagemControllerTest {
             mockMvc.perform(post("/mensagens").contentType(MediaType.APPLICATION_XML).content(xmlPayload)).andExpect(status().isUnsupportedMediaType());
             verify(mensagemService, never()).registrarMensagem(any(Mensagem.class));
         }
+
+        @Test
+        void deveAceitarMensagem_QuandoIngestaoAssincrona() throws Exception {
+            // Arrange
+            properties.getIngestao().setAssincrona(true);
+            var mensagem = gerarMensagem();
+            when(mensagemService.enfileirarMensagem(any(Mensagem.class))).thenAnswer(i -> i.getArgument(0));
+
+            // Act & Assert
+            mockMvc.perform(
+                    post("/mensagens")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(asJsonString(mensagem))
+            ).andExpect(status().isAccepted());
+
+            verify(mensagemService, times(1)).enfileirarMensagem(any(Mensagem.class));
+            verify(mensagemService, never()).registrarMensagem(any(Mensagem.class));
+        }
+
+        @Test
+        void deveRecusarMensagem_QuandoFilaDeIngestaoCheia() throws Exception {
+            // Arrange
+            properties.getIngestao().setAssincrona(true);
+            var mensagem = gerarMensagem();
+            when(mensagemService.enfileirarMensagem(any(Mensagem.class)))
+                    .thenThrow(new FilaDeIngestaoCheiaException("A fila de mensagens está cheia, tente novamente mais tarde"));
+
+            // Act & Assert
+            mockMvc.perform(
+                            post("/mensagens")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(asJsonString(mensagem))
+                    ).andExpect(status().isTooManyRequests())
+                    .andExpect(header().string("Retry-After", "1"))
+                    .andExpect(content().string("A fila de mensagens está cheia, tente novamente mais tarde"));
+        }
+    }
+
+    @Nested
+    class RegistrarMensagens {
+        @Test
+        void devePermitirRegistrarMensagens() throws Exception {
+            var mensagens = Arrays.asList(gerarMensagem(), gerarMensagem());
+            var resultado = ResultadoLote.builder()
+                    .total(2)
+                    .registradas(2)
+                    .item(ResultadoLote.Item.builder().indice(0).situacao(ResultadoLote.Situacao.REGISTRADA).id(UUID.randomUUID()).build())
+                    .item(ResultadoLote.Item.builder().indice(1).situacao(ResultadoLote.Situacao.REGISTRADA).id(UUID.randomUUID()).build())
+                    .build();
+            when(mensagemService.registrarMensagens(anyList())).thenReturn(resultado);
+
+            mockMvc.perform(post("/mensagens/lote")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(asJsonString(mensagens)))
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.registradas").value(2))
+                    .andExpect(jsonPath("$.itens[1].situacao").value("REGISTRADA"));
+
+            verify(mensagemService, times(1)).registrarMensagens(anyList());
+        }
+
+        @Test
+        void deveGerarExcecao_QuandoRegistrarMensagens_NenhumaMensagemValida() throws Exception {
+            var resultado = ResultadoLote.builder()
+                    .total(1)
+                    .rejeitadas(1)
+                    .item(ResultadoLote.Item.builder().indice(0).situacao(ResultadoLote.Situacao.REJEITADA).erro("usuário não pode estar vazio").build())
+                    .build();
+            when(mensagemService.registrarMensagens(anyList())).thenReturn(resultado);
+
+            mockMvc.perform(post("/mensagens/lote")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("[{\"conteudo\": \"sem usuário\"}]"))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.itens[0].erros[0]").value("usuário não pode estar vazio"));
+        }
+
+        @Test
+        void deveGerarExcecao_QuandoRegistrarMensagens_LoteExcedeTamanhoMaximo() throws Exception {
+            properties.getLote().setTamanhoMaximo(1);
+            var mensagens = Arrays.asList(gerarMensagem(), gerarMensagem());
+
+            mockMvc.perform(post("/mensagens/lote")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(asJsonString(mensagens)))
+                    .andExpect(status().isPayloadTooLarge())
+                    .andExpect(content().string("O lote deve conter no máximo 1 mensagens"));
+
+            verify(mensagemService, never()).registrarMensagens(anyList());
+        }
     }
 
     @Nested
@@ -93,7 +204,7 @@ class MensagemControllerTest {
             mockMvc.perform(get("/mensagens/{id}", id)).andExpect(status().isOk());
 
             verify(mensagemService, times(1)).buscarMensagem(any(UUID.class));
-
+            verify(mensagemService, never()).listarMensagens(any(Pageable.class));
         }
 
         @Test
@@ -107,6 +218,70 @@ class MensagemControllerTest {
 
 
         }
+
+        @Test
+        void deveResponderNaoModificada_QuandoETagNaoMudou() throws Exception {
+            // Arrange
+            var mensagem = gerarMensagem();
+            mensagem.setId(UUID.randomUUID());
+            when(mensagemService.buscarMensagem(mensagem.getId())).thenReturn(mensagem);
+            var etag = mockMvc.perform(get("/mensagens/{id}", mensagem.getId()))
+                    .andExpect(status().isOk())
+                    .andExpect(header().exists("ETag"))
+                    .andReturn().getResponse().getHeader("ETag");
+
+            // Act & Assert
+            mockMvc.perform(get("/mensagens/{id}", mensagem.getId()).header("If-None-Match", etag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string("ETag", etag))
+                    .andExpect(content().string(""));
+        }
+
+        @Test
+        void deveBuscarMensagem_QuandoMensagemMudouDesdeETag() throws Exception {
+            // Arrange
+            var mensagem = gerarMensagem();
+            mensagem.setId(UUID.randomUUID());
+            when(mensagemService.buscarMensagem(mensagem.getId())).thenReturn(mensagem);
+            mensagem.setVersao(0L);
+            var etag = mockMvc.perform(get("/mensagens/{id}", mensagem.getId()))
+                    .andReturn().getResponse().getHeader("ETag");
+            mensagem.setConteudo("conteúdo alterado");
+            mensagem.setVersao(1L);
+
+            // Act & Assert
+            mockMvc.perform(get("/mensagens/{id}", mensagem.getId()).header("If-None-Match", etag))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("ETag", not(etag)))
+                    .andExpect(jsonPath("$.conteudo").value("conteúdo alterado"));
+        }
+    }
+
+    @Nested
+    class ExportarMensagens {
+        @Test
+        void devePermitirExportarMensagens() throws Exception {
+            var mensagem1 = gerarMensagem();
+            mensagem1.setId(UUID.randomUUID());
+            var mensagem2 = gerarMensagem();
+            mensagem2.setId(UUID.randomUUID());
+            doAnswer(i -> {
+                Consumer<Mensagem> consumidor = i.getArgument(0);
+                consumidor.accept(mensagem1);
+                consumidor.accept(mensagem2);
+                return null;
+            }).when(mensagemService).exportarMensagens(any());
+
+            var resultado = mockMvc.perform(get("/mensagens/export"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            mockMvc.perform(asyncDispatch(resultado))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(MensagemController.APPLICATION_NDJSON_VALUE))
+                    .andExpect(content().string(asJsonString(mensagem1) + "\n" + asJsonString(mensagem2) + "\n"));
+            verify(mensagemService, times(1)).exportarMensagens(any());
+        }
     }
 
     @Nested
@@ -121,6 +296,7 @@ class MensagemControllerTest {
             mockMvc.perform(put("/mensagens/{id}", id).contentType(MediaType.APPLICATION_JSON).content(asJsonString(mensagem))).andExpect(status().isAccepted());
 
             verify(mensagemService, times(1)).alterarMensagem(id, mensagem);
+            verify(mensagemService, never()).listarMensagens(any(Pageable.class));
         }
 
         @Test
@@ -167,6 +343,63 @@ class MensagemControllerTest {
 
             verify(mensagemService, times(1)).alterarMensagem(any(UUID.class), any(Mensagem.class));
         }
+
+        @Test
+        void deveUsarEtagsDoIfMatch_QuandoAlterarMensagem() throws Exception {
+            // Arrange
+            var id = UUID.randomUUID();
+            var mensagem = gerarMensagem();
+            mensagem.setId(id);
+            when(mensagemService.alterarMensagem(any(UUID.class), any(Mensagem.class), anyList()))
+                    .thenAnswer(i -> i.<Mensagem>getArgument(1).toBuilder().versao(4L).build());
+
+            // Act & Assert
+            mockMvc.perform(put("/mensagens/{id}", id)
+                            .header("If-Match", "\"3-0\", W/\"3-1\", \"3-2\"")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(asJsonString(mensagem)))
+                    .andExpect(status().isAccepted())
+                    .andExpect(header().string("ETag", "\"4-0\""));
+
+            verify(mensagemService).alterarMensagem(eq(id), any(Mensagem.class),
+                    eq(List.of(new EstadoDaMensagem(3, 0), new EstadoDaMensagem(3, 2))));
+        }
+
+        @Test
+        void deveIgnorarIfMatch_QuandoAlterarMensagem_QualquerEstado() throws Exception {
+            // Arrange
+            var id = UUID.randomUUID();
+            var mensagem = gerarMensagem();
+            mensagem.setId(id);
+            when(mensagemService.alterarMensagem(any(UUID.class), any(Mensagem.class))).thenReturn(mensagem);
+
+            // Act & Assert
+            mockMvc.perform(put("/mensagens/{id}", id)
+                            .header("If-Match", "*")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(asJsonString(mensagem)))
+                    .andExpect(status().isAccepted());
+
+            verify(mensagemService, never()).alterarMensagem(any(UUID.class), any(Mensagem.class), anyList());
+        }
+
+        @Test
+        void deveGerarExcecao_QuandoAlterarMensagem_VersaoDesatualizada() throws Exception {
+            // Arrange
+            var id = UUID.randomUUID();
+            var mensagem = gerarMensagem();
+            mensagem.setId(id);
+            when(mensagemService.alterarMensagem(any(UUID.class), any(Mensagem.class), anyList()))
+                    .thenThrow(new MensagemDesatualizadaException("A mensagem foi alterada desde a versão informada"));
+
+            // Act & Assert
+            mockMvc.perform(put("/mensagens/{id}", id)
+                            .header("If-Match", "\"3-0\"")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(asJsonString(mensagem)))
+                    .andExpect(status().isPreconditionFailed())
+                    .andExpect(content().string("A mensagem foi alterada desde a versão informada"));
+        }
     }
 
     @Nested
@@ -191,8 +424,59 @@ class MensagemControllerTest {
         }
     }
 
+    @Nested
+    class RegistrarGostei {
+        @Test
+        void devePermitirRegistrarGostei() throws Exception {
+            var id = UUID.randomUUID();
+            when(mensagemService.buscarMensagem(id)).thenReturn(gerarMensagem());
+
+            mockMvc.perform(post("/mensagens/{id}/gostei", id)).andExpect(status().isAccepted()).andExpect(content().string("gostei registrado"));
+            verify(mensagemService, times(1)).registrarGostei(id);
+        }
+
+        @Test
+        void deveGerarExcecao_QuandoRegistrarGostei_IdNaoExiste() throws Exception {
+            var id = UUID.randomUUID();
+            var mensagemDaExcecao = "Mensagem não encontrada";
+            when(mensagemService.buscarMensagem(id)).thenThrow(new MensagemNotFoundException(mensagemDaExcecao));
+
+            mockMvc.perform(post("/mensagens/{id}/gostei", id)).andExpect(status().isBadRequest()).andExpect(content().string(mensagemDaExcecao));
+            verify(mensagemService, never()).registrarGostei(any(UUID.class));
+        }
+    }
+
     @Nested
     class ListarMensagens {
+        @Test
+        void deveResponderNaoModificada_QuandoVersaoNaoMudou() throws Exception {
+            // Arrange
+            when(mensagemService.versaoDasMensagens()).thenReturn("abc-1-0");
+
+            // Act & Assert
+            mockMvc.perform(get("/mensagens").header("If-None-Match", "\"abc-1-0\""))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string("ETag", "\"abc-1-0\""));
+            mockMvc.perform(get("/mensagens").param("semTotal", "true").header("If-None-Match", "\"abc-1-0\""))
+                    .andExpect(status().isNotModified());
+
+            verify(mensagemService, never()).listarMensagens(any(Pageable.class));
+            verify(mensagemService, never()).listarMensagensSemTotal(any(Pageable.class));
+        }
+
+        @Test
+        void deveListarMensagens_QuandoVersaoMudou() throws Exception {
+            // Arrange
+            when(mensagemService.versaoDasMensagens()).thenReturn("abc-2-0");
+            when(mensagemService.listarMensagens(any(Pageable.class))).thenReturn(new PageImpl<>(Collections.singletonList(gerarMensagem())));
+
+            // Act & Assert
+            mockMvc.perform(get("/mensagens").header("If-None-Match", "\"abc-1-0\""))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("ETag", "\"abc-2-0\""))
+                    .andExpect(jsonPath("$.content", not(empty())));
+        }
+
         @Test
         void devePermitirListarMensagens() throws Exception {
             var mensagens = new PageImpl<>(Collections.singletonList(gerarMensagem()));
@@ -220,6 +504,163 @@ class MensagemControllerTest {
                     .andExpect(jsonPath("$.totalPages").value(1))
                     .andExpect(jsonPath("$.totalElements").value(1));
         }
+
+        @Test
+        void devePermitirListarMensagensSemTotal() throws Exception {
+            var mensagens = new SliceImpl<>(Collections.singletonList(gerarMensagem()), PageRequest.of(0, 1), true);
+            when(mensagemService.listarMensagensSemTotal(any(Pageable.class))).thenReturn(mensagens);
+
+            mockMvc.perform(get("/mensagens")
+                            .param("semTotal", "true")
+                            .param("size", "1"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content", not(empty())))
+                    .andExpect(jsonPath("$.last").value(false))
+                    .andExpect(jsonPath("$.totalElements").doesNotExist())
+                    .andExpect(jsonPath("$.totalPages").doesNotExist());
+            verify(mensagemService, never()).listarMensagens(any(Pageable.class));
+        }
+    }
+
+    @Nested
+    class BuscarMensagens {
+        @Test
+        void devePermitirBuscarMensagens() throws Exception {
+            var mensagens = new PageImpl<>(Collections.singletonList(gerarMensagem()));
+            when(mensagemService.buscarMensagens(anyString(), any(Pageable.class))).thenReturn(mensagens);
+
+            mockMvc.perform(get("/mensagens/busca").param("q", "conteúdo"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content", not(empty())))
+                    .andExpect(jsonPath("$.totalElements").value(1));
+            verify(mensagemService, times(1)).buscarMensagens("conteúdo", PageRequest.of(0, 10));
+        }
+
+        @Test
+        void deveGerarExcecao_QuandoTermoDeBuscaVazio() throws Exception {
+            var mensagemDaExcecao = "O termo de busca não pode estar vazio";
+            when(mensagemService.buscarMensagens(anyString(), any(Pageable.class))).thenThrow(new IllegalArgumentException(mensagemDaExcecao));
+
+            mockMvc.perform(get("/mensagens/busca"))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(content().string(mensagemDaExcecao));
+        }
+    }
+
+    @Nested
+    class ListarMensagensDoUsuario {
+        @Test
+        void devePermitirListarMensagensDoUsuario_PrimeiraPagina() throws Exception {
+            var mensagem = gerarMensagem();
+            mensagem.setId(UUID.randomUUID());
+            when(mensagemService.listarMensagensDoUsuario(anyString(), isNull(), anyInt()))
+                    .thenReturn(MensagemCursorPage.de(Collections.singletonList(mensagem), 10, true));
+
+            mockMvc.perform(get("/mensagens")
+                            .param("usuario", "Jose"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content[0].usuario").value("Jose"))
+                    .andExpect(jsonPath("$.first").value(true));
+
+            verify(mensagemService, times(1)).listarMensagensDoUsuario("Jose", null, 10);
+            verify(mensagemService, never()).listarMensagens(any(Pageable.class));
+        }
+
+        @Test
+        void devePermitirListarMensagensDoUsuario_APartirDoCursor() throws Exception {
+            var mensagem = gerarMensagem();
+            mensagem.setId(UUID.fromString("f1c62001-68ae-441e-a90c-800b3583374d"));
+            var cursor = MensagemCursor.de(mensagem);
+            when(mensagemService.listarMensagensDoUsuario(anyString(), any(MensagemCursor.class), anyInt()))
+                    .thenReturn(MensagemCursorPage.de(Collections.emptyList(), 5, false));
+
+            mockMvc.perform(get("/mensagens")
+                            .param("usuario", "Jose")
+                            .param("cursor", cursor.codificar())
+                            .param("size", "5"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.last").value(true));
+
+            verify(mensagemService, times(1)).listarMensagensDoUsuario("Jose", cursor, 5);
+            verify(mensagemService, never()).listarMensagens(any(MensagemCursor.class), anyInt());
+        }
+
+        @Test
+        void devePermitirListarMensagensDoUsuario_QuandoSemTotal() throws Exception {
+            var mensagem = gerarMensagem();
+            mensagem.setId(UUID.randomUUID());
+            when(mensagemService.listarMensagensDoUsuario(anyString(), isNull(), anyInt()))
+                    .thenReturn(MensagemCursorPage.de(Collections.singletonList(mensagem), 10, true));
+
+            mockMvc.perform(get("/mensagens")
+                            .param("usuario", "Jose")
+                            .param("semTotal", "true"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content[0].usuario").value("Jose"));
+
+            verify(mensagemService, times(1)).listarMensagensDoUsuario("Jose", null, 10);
+            verify(mensagemService, never()).listarMensagensSemTotal(any(Pageable.class));
+        }
+
+        @Test
+        void deveGerarExcecao_QuandoListarMensagensDoUsuario_CursorInvalido() throws Exception {
+            mockMvc.perform(get("/mensagens")
+                            .param("usuario", "Jose")
+                            .param("cursor", "cursor-invalido"))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(content().string("Cursor inválido"));
+        }
+    }
+
+    @Nested
+    class ListarMensagensPorCursor {
+        @Test
+        void devePermitirListarMensagens_PrimeiraPagina() throws Exception {
+            var mensagem = gerarMensagem();
+            mensagem.setId(UUID.randomUUID());
+            var pagina = MensagemCursorPage.de(Collections.singletonList(mensagem), 10, true);
+            when(mensagemService.listarMensagens(isNull(), anyInt())).thenReturn(pagina);
+
+            mockMvc.perform(get("/mensagens")
+                            .param("cursor", "")
+                            .param("size", "10"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content", not(empty())))
+                    .andExpect(jsonPath("$.first").value(true))
+                    .andExpect(jsonPath("$.last").value(true))
+                    .andExpect(jsonPath("$", not(hasKey("totalElements"))));
+
+            verify(mensagemService, times(1)).listarMensagens(null, 10);
+            verify(mensagemService, never()).listarMensagens(any(Pageable.class));
+        }
+
+        @Test
+        void devePermitirListarMensagens_APartirDoCursor() throws Exception {
+            var mensagem = gerarMensagem();
+            mensagem.setId(UUID.fromString("f1c62001-68ae-441e-a90c-800b3583374d"));
+            var cursor = MensagemCursor.de(mensagem);
+            when(mensagemService.listarMensagens(any(MensagemCursor.class), anyInt()))
+                    .thenReturn(MensagemCursorPage.de(Collections.emptyList(), 5, false));
+
+            mockMvc.perform(get("/mensagens")
+                            .param("cursor", cursor.codificar())
+                            .param("size", "5"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content", empty()))
+                    .andExpect(jsonPath("$.last").value(true));
+
+            verify(mensagemService, times(1)).listarMensagens(cursor, 5);
+        }
+
+        @Test
+        void deveGerarExcecao_QuandoListarMensagens_CursorInvalido() throws Exception {
+            mockMvc.perform(get("/mensagens")
+                            .param("cursor", "cursor-invalido"))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(content().string("Cursor inválido"));
+
+            verify(mensagemService, never()).listarMensagens(any(MensagemCursor.class), anyInt());
+        }
     }
 
     public static String asJsonString(final Object object) throws JsonProcessingException {
@@ -0,0 +1,64 @@
+package br.com.fiap.api.performance;
+
+import io.gatling.javaapi.core.ChainBuilder;
+import io.gatling.javaapi.core.ScenarioBuilder;
+import io.gatling.javaapi.core.Simulation;
+import io.gatling.javaapi.http.HttpProtocolBuilder;
+
+import java.time.Duration;
+
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.http;
+import static io.gatling.javaapi.http.HttpDsl.status;
+
+/**
+ * Carga com muitos usuários simultâneos (modelo fechado), para comparar a aplicação com threads de plataforma
+ * e com threads virtuais ({@code mensagens.threads-virtuais.habilitadas}). Compare a vazão e o p99 dos relatórios
+ * gerados em cada modo.
+ * <p>
+ * Parâmetros: {@code -DbaseUrl} (padrão http://localhost:8080), {@code -Dusuarios} (padrão 1000)
+ * e {@code -Dduracao} em segundos (padrão 60).
+ */
+public class ConcorrenciaSimulation extends Simulation {
+
+    private static final String BASE_URL = System.getProperty("baseUrl", "http://localhost:8080");
+    private static final int USUARIOS = Integer.getInteger("usuarios", 1000);
+    private static final Duration DURACAO = Duration.ofSeconds(Integer.getInteger("duracao", 60));
+
+    private final HttpProtocolBuilder httpProtocol =
+            http.baseUrl(BASE_URL)
+                    .header("Content-Type", "application/json")
+                    .shareConnections();
+
+    ChainBuilder registrarMensagem = exec(http("registrar mensagem")
+            .post("/mensagens")
+            .body(StringBody("{\"usuario\": \"user\", \"conteudo\": \"conteudo da mensagem\"}"))
+            .check(status().is(201))
+            .check(jsonPath("$.id").saveAs("mensagemId")));
+
+    ChainBuilder operacoes = during(DURACAO).on(
+            exec(http("buscar mensagem")
+                    .get("/mensagens/#{mensagemId}")
+                    .check(status().is(200)))
+            .exec(http("listar mensagens")
+                    .get("/mensagens?page=0&size=10")
+                    .check(status().is(200)))
+            .exec(http("registrar gostei")
+                    .post("/mensagens/#{mensagemId}/gostei")
+                    .check(status().is(202))));
+
+    ScenarioBuilder cenario = scenario("usuários simultâneos").exec(registrarMensagem, operacoes);
+
+    {
+        setUp(
+                cenario.injectClosed(
+                        rampConcurrentUsers(0).to(USUARIOS).during(Duration.ofSeconds(10)),
+                        constantConcurrentUsers(USUARIOS).during(DURACAO)
+                )
+        )
+                .protocols(httpProtocol)
+                .assertions(
+                        global().failedRequests().percent().lt(1.0)
+                );
+    }
+}
@@ -0,0 +1,69 @@
+package br.com.fiap.api.performance;
+
+import br.com.fiap.api.util.UuidV7;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Compara a inserção de chaves primárias UUID v4 (aleatórias) e v7 (ordenadas por tempo) no PostgreSQL:
+ * vazão de inserção e tamanho final do índice da chave primária.
+ * <p>
+ * Parâmetros (propriedades de sistema): {@code benchmark.url}, {@code benchmark.usuario},
+ * {@code benchmark.senha}, {@code benchmark.registros} e {@code benchmark.lote}.
+ */
+public class IdentificadorBenchmark {
+
+    private static final String URL = System.getProperty("benchmark.url", "jdbc:postgresql://localhost:5432/fiap?reWriteBatchedInserts=true");
+    private static final String USUARIO = System.getProperty("benchmark.usuario", "postgres");
+    private static final String SENHA = System.getProperty("benchmark.senha", "postgres");
+    private static final int REGISTROS = Integer.getInteger("benchmark.registros", 1_000_000);
+    private static final int LOTE = Integer.getInteger("benchmark.lote", 1_000);
+
+    public static void main(String[] args) throws SQLException {
+        try (var conexao = DriverManager.getConnection(URL, USUARIO, SENHA)) {
+            executar(conexao, "uuid_v4", UUID::randomUUID);
+            executar(conexao, "uuid_v7", UuidV7::gerar);
+        }
+    }
+
+    private static void executar(Connection conexao, String nome, Supplier<UUID> gerador) throws SQLException {
+        var tabela = "benchmark_" + nome;
+        try (var statement = conexao.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + tabela);
+            statement.execute("CREATE TABLE " + tabela + " (id uuid PRIMARY KEY, conteudo varchar(255) NOT NULL)");
+        }
+
+        conexao.setAutoCommit(false);
+        var inicio = System.nanoTime();
+        try (var insert = conexao.prepareStatement("INSERT INTO " + tabela + " (id, conteudo) VALUES (?, ?)")) {
+            for (int i = 1; i <= REGISTROS; i++) {
+                insert.setObject(1, gerador.get());
+                insert.setString(2, "conteúdo da mensagem");
+                insert.addBatch();
+                if (i % LOTE == 0) {
+                    insert.executeBatch();
+                    conexao.commit();
+                }
+            }
+            insert.executeBatch();
+            conexao.commit();
+        }
+        var segundos = (System.nanoTime() - inicio) / 1_000_000_000d;
+        conexao.setAutoCommit(true);
+
+        try (var statement = conexao.createStatement();
+             var resultado = statement.executeQuery("SELECT pg_relation_size('" + tabela + "_pkey')")) {
+            resultado.next();
+            System.out.printf("%s: %d registros em %.2fs (%.0f inserções/s), índice da chave primária com %.1f MB%n",
+                    nome, REGISTROS, segundos, REGISTROS / segundos, resultado.getLong(1) / (1024d * 1024d));
+        }
+
+        try (var statement = conexao.createStatement()) {
+            statement.execute("DROP TABLE " + tabela);
+        }
+    }
+}
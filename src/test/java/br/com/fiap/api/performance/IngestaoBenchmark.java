@@ -0,0 +1,66 @@
+package br.com.fiap.api.performance;
+
+import br.com.fiap.api.config.MensagensProperties;
+import br.com.fiap.api.model.Mensagem;
+import br.com.fiap.api.repository.MensagemRepository;
+import br.com.fiap.api.service.FilaDeIngestao;
+import br.com.fiap.api.service.MensagemTimeline;
+import br.com.fiap.api.util.UuidV7;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tempo para aceitar uma mensagem na {@link FilaDeIngestao} com e sem o diário, com várias threads registrando ao
+ * mesmo tempo para que as sincronizações com o disco sejam agrupadas. A fila é descarregada a cada 10 ms em um
+ * repositório que descarta as mensagens, isolando o custo do diário do custo do banco.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class IngestaoBenchmark {
+
+    @Param({"false", "true"})
+    private boolean diario;
+
+    private FilaDeIngestao fila;
+    private ScheduledExecutorService descarga;
+
+    @Setup
+    public void setup() throws IOException {
+        var properties = new MensagensProperties();
+        properties.getIngestao().setCapacidade(1_000_000);
+        properties.getIngestao().getDiario().setHabilitado(diario);
+        properties.getIngestao().getDiario().setDiretorio(Files.createTempDirectory("ingestao").toString());
+        var repository = (MensagemRepository) Proxy.newProxyInstance(MensagemRepository.class.getClassLoader(),
+                new Class<?>[]{MensagemRepository.class},
+                (proxy, method, args) -> "inserirEmLote".equals(method.getName()) ? args[0] : null);
+        fila = new FilaDeIngestao(repository, new MensagemTimeline(repository, properties), properties, new SimpleMeterRegistry());
+        descarga = Executors.newSingleThreadScheduledExecutor();
+        descarga.scheduleWithFixedDelay(fila::descarregar, 10, 10, TimeUnit.MILLISECONDS);
+    }
+
+    @TearDown
+    public void tearDown() {
+        descarga.shutdownNow();
+    }
+
+    @Benchmark
+    public boolean adicionar() {
+        return fila.adicionar(Mensagem.builder()
+                .id(UuidV7.gerar())
+                .usuario("Jose")
+                .conteudo("conteúdo da mensagem")
+                .build());
+    }
+}
@@ -0,0 +1,79 @@
+package br.com.fiap.api.performance;
+
+import br.com.fiap.api.RestApiApplication;
+import br.com.fiap.api.model.Mensagem;
+import br.com.fiap.api.repository.MensagemRepository;
+import br.com.fiap.api.util.UuidV7;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Leitura de uma página de mensagens no H2: entidades gerenciadas, como o repositório fazia, contra a projeção
+ * de {@link MensagemRepository}. Execute com {@code -prof gc} para comparar também a alocação por operação.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LeituraBenchmark {
+
+    private static final String CONSULTA_ENTIDADES = "SELECT m FROM Mensagem m ORDER BY m.dataCriacao DESC, m.id DESC";
+
+    @Param({"10", "100"})
+    private int tamanho;
+
+    private ConfigurableApplicationContext contexto;
+    private MensagemRepository repository;
+    private EntityManager entityManager;
+    private TransactionTemplate transacao;
+
+    @Setup
+    public void setup() {
+        contexto = new SpringApplicationBuilder(RestApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .run();
+        repository = contexto.getBean(MensagemRepository.class);
+        entityManager = contexto.getBean(EntityManager.class);
+        transacao = new TransactionTemplate(contexto.getBean(PlatformTransactionManager.class));
+
+        var mensagens = new ArrayList<Mensagem>();
+        for (int i = 0; i < 1000; i++) {
+            mensagens.add(Mensagem.builder()
+                    .id(UuidV7.gerar())
+                    .usuario("Jose")
+                    .conteudo("conteúdo da mensagem " + i)
+                    .build());
+        }
+        repository.inserirEmLote(mensagens);
+    }
+
+    @TearDown
+    public void tearDown() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public List<Mensagem> listarEntidadesGerenciadas() {
+        return transacao.execute(status -> entityManager.createQuery(CONSULTA_ENTIDADES, Mensagem.class)
+                .setMaxResults(tamanho)
+                .getResultList());
+    }
+
+    @Benchmark
+    public List<Mensagem> listarProjecao() {
+        return repository.listarMensagensRecentes(PageRequest.of(0, tamanho));
+    }
+}
@@ -0,0 +1,71 @@
+package br.com.fiap.api.performance;
+
+import br.com.fiap.api.model.Mensagem;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialização e desserialização de {@link Mensagem} com a mesma configuração de Jackson usada pelo Spring Boot.
+ * A desserialização passa pelo builder gerado por {@code @Jacksonized}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MensagemJsonBenchmark {
+
+    private ObjectWriter escritorDeMensagem;
+    private ObjectReader leitorDeMensagem;
+    private ObjectMapper objectMapper;
+    private Mensagem mensagem;
+    private String json;
+    private PageImpl<Mensagem> pagina;
+
+    @Setup
+    public void setup() throws IOException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        escritorDeMensagem = objectMapper.writerFor(Mensagem.class);
+        leitorDeMensagem = objectMapper.readerFor(Mensagem.class);
+        mensagem = Mensagem.builder()
+                .id(UUID.randomUUID())
+                .usuario("Jose")
+                .conteudo("conteúdo da mensagem")
+                .dataCriacao(new Date())
+                .gostei(42)
+                .build();
+        json = escritorDeMensagem.writeValueAsString(mensagem);
+        var conteudo = new ArrayList<Mensagem>();
+        for (int i = 0; i < 10; i++) {
+            conteudo.add(mensagem.toBuilder().id(UUID.randomUUID()).build());
+        }
+        pagina = new PageImpl<>(conteudo, PageRequest.of(0, 10), 1000);
+    }
+
+    @Benchmark
+    public byte[] serializarMensagem() throws IOException {
+        return escritorDeMensagem.writeValueAsBytes(mensagem);
+    }
+
+    @Benchmark
+    public Mensagem desserializarMensagem() throws IOException {
+        return leitorDeMensagem.readValue(json);
+    }
+
+    @Benchmark
+    public byte[] serializarPagina() throws IOException {
+        return objectMapper.writeValueAsBytes(pagina);
+    }
+}
@@ -0,0 +1,147 @@
+package br.com.fiap.api.performance;
+
+import br.com.fiap.api.model.EstadoDaMensagem;
+import br.com.fiap.api.model.Mensagem;
+import br.com.fiap.api.model.ResumoDasMensagens;
+import br.com.fiap.api.repository.MensagemRepository;
+import br.com.fiap.api.util.UuidV7;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * {@link MensagemRepository} em memória para os benchmarks, de modo que o custo medido seja o do serviço
+ * e não o do banco. Implementa apenas as operações usadas por {@code MensagemServiceImpl}.
+ */
+final class MensagemRepositoryEmMemoria implements InvocationHandler {
+
+    private static final Comparator<Mensagem> ORDENACAO = Comparator
+            .comparing(Mensagem::getDataCriacao, Comparator.reverseOrder())
+            .thenComparing(Mensagem::getId, UuidV7.ORDEM_DO_BANCO.reversed());
+
+    private final Map<UUID, Mensagem> mensagens = new ConcurrentHashMap<>();
+    /** Equivalente ao índice {@code (dataCriacao DESC, id DESC)} da tabela. */
+    private final ConcurrentSkipListSet<Mensagem> indice = new ConcurrentSkipListSet<>(ORDENACAO);
+
+    static MensagemRepository criar() {
+        return (MensagemRepository) Proxy.newProxyInstance(MensagemRepository.class.getClassLoader(),
+                new Class<?>[]{MensagemRepository.class}, new MensagemRepositoryEmMemoria());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "inserir":
+            case "save":
+                var mensagem = (Mensagem) args[0];
+                var anterior = mensagens.put(mensagem.getId(), mensagem);
+                if (anterior != null) {
+                    indice.remove(anterior);
+                }
+                indice.add(mensagem);
+                return mensagem;
+            case "findById":
+            case "buscarMensagem":
+                return Optional.ofNullable(mensagens.get((UUID) args[0]));
+            case "existsById":
+                return mensagens.containsKey((UUID) args[0]);
+            case "alterarConteudo":
+                return alterarConteudo((UUID) args[0], (String) args[1], (List<EstadoDaMensagem>) args[2]);
+            case "remover":
+                var removida = mensagens.remove((UUID) args[0]);
+                if (removida == null) {
+                    return 0;
+                }
+                indice.remove(removida);
+                return 1;
+            case "count":
+                return (long) mensagens.size();
+            case "resumirMensagens":
+                return resumir();
+            case "listarMensagens":
+                return pagina((Pageable) args[0]);
+            case "listarMensagensSemTotal":
+                var fatia = pagina((Pageable) args[0]);
+                return new SliceImpl<>(fatia.getContent(), fatia.getPageable(), fatia.hasNext());
+            case "listarMensagensRecentes":
+                return limitar(indice, (Pageable) args[0]);
+            case "listarMensagensAnteriores":
+                var referencia = Mensagem.builder().dataCriacao((Date) args[0]).id((UUID) args[1]).build();
+                return limitar(indice.tailSet(referencia, false), (Pageable) args[2]);
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+            case "toString":
+                return getClass().getSimpleName();
+            default:
+                throw new UnsupportedOperationException(method.getName());
+        }
+    }
+
+    private synchronized Optional<Mensagem> alterarConteudo(UUID id, String conteudo, List<EstadoDaMensagem> estadosAceitos) {
+        var atual = mensagens.get(id);
+        if (atual == null) {
+            return Optional.empty();
+        }
+        var versaoAtual = atual.getVersao() == null ? 0L : atual.getVersao();
+        if (estadosAceitos != null && estadosAceitos.stream().noneMatch(estado -> estado.getVersao() == versaoAtual
+                && (estado.getGostei() == null || estado.getGostei() == atual.getGostei()))) {
+            return Optional.empty();
+        }
+        var alterada = atual.toBuilder().conteudo(conteudo).versao(versaoAtual + 1).build();
+        mensagens.put(id, alterada);
+        indice.remove(atual);
+        indice.add(alterada);
+        return Optional.of(alterada);
+    }
+
+    private ResumoDasMensagens resumir() {
+        var versoes = 0L;
+        var gosteis = 0L;
+        for (var mensagem : mensagens.values()) {
+            versoes += mensagem.getVersao() == null ? 0 : mensagem.getVersao();
+            gosteis += mensagem.getGostei();
+        }
+        return new ResumoDasMensagens(mensagens.size(), versoes, gosteis);
+    }
+
+    private Page<Mensagem> pagina(Pageable pageable) {
+        var conteudo = new ArrayList<Mensagem>(pageable.getPageSize());
+        var iterador = indice.iterator();
+        for (long i = 0; i < pageable.getOffset() && iterador.hasNext(); i++) {
+            iterador.next();
+        }
+        while (conteudo.size() < pageable.getPageSize() && iterador.hasNext()) {
+            conteudo.add(iterador.next());
+        }
+        return new PageImpl<>(conteudo, pageable, mensagens.size());
+    }
+
+    private static List<Mensagem> limitar(Collection<Mensagem> ordenadas, Pageable pageable) {
+        var resultado = new ArrayList<Mensagem>(pageable.getPageSize());
+        for (var mensagem : ordenadas) {
+            if (resultado.size() == pageable.getPageSize()) {
+                break;
+            }
+            resultado.add(mensagem);
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,96 @@
+package br.com.fiap.api.performance;
+
+import br.com.fiap.api.config.CacheConfig;
+import br.com.fiap.api.config.MensagensProperties;
+import br.com.fiap.api.model.Mensagem;
+import br.com.fiap.api.model.MensagemCursor;
+import br.com.fiap.api.model.MensagemCursorPage;
+import br.com.fiap.api.service.ContadorDeGostei;
+import br.com.fiap.api.service.FilaDeIngestao;
+import br.com.fiap.api.service.MensagemService;
+import br.com.fiap.api.service.MensagemServiceImpl;
+import br.com.fiap.api.service.MensagemTimeline;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import javax.validation.Validation;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Operações de {@link MensagemServiceImpl} sobre um repositório em memória, isolando o custo do serviço
+ * (validação, timeline, montagem das páginas) do custo do banco.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MensagemServiceBenchmark {
+
+    @Param("1000")
+    private int quantidade;
+
+    private MensagemService mensagemService;
+    private List<UUID> ids;
+    private MensagemCursor cursor;
+
+    @Setup
+    public void setup() {
+        var repository = MensagemRepositoryEmMemoria.criar();
+        var timeline = new MensagemTimeline(repository, new MensagensProperties());
+        var contadorDeGostei = new ContadorDeGostei(repository, timeline, new ConcurrentMapCacheManager(CacheConfig.CACHE_MENSAGENS));
+        var filaDeIngestao = new FilaDeIngestao(repository, timeline, new MensagensProperties(), new SimpleMeterRegistry());
+        mensagemService = new MensagemServiceImpl(repository, timeline,
+                Validation.buildDefaultValidatorFactory().getValidator(), contadorDeGostei, filaDeIngestao);
+
+        ids = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            ids.add(mensagemService.registrarMensagem(novaMensagem()).getId());
+        }
+        var primeiraPagina = mensagemService.listarMensagens(null, 10);
+        cursor = MensagemCursor.decodificar(primeiraPagina.getNextCursor());
+    }
+
+    @Benchmark
+    public Mensagem registrarMensagem() {
+        var mensagem = mensagemService.registrarMensagem(novaMensagem());
+        mensagemService.removerMensagem(mensagem.getId());
+        return mensagem;
+    }
+
+    @Benchmark
+    public Mensagem buscarMensagem() {
+        return mensagemService.buscarMensagem(ids.get(ThreadLocalRandom.current().nextInt(ids.size())));
+    }
+
+    @Benchmark
+    public Mensagem alterarMensagem() {
+        var id = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+        return mensagemService.alterarMensagem(id, Mensagem.builder().id(id).usuario("Jose").conteudo("conteúdo alterado").build());
+    }
+
+    @Benchmark
+    public Page<Mensagem> listarPrimeiraPagina() {
+        return mensagemService.listarMensagens(PageRequest.of(0, 10));
+    }
+
+    @Benchmark
+    public MensagemCursorPage listarPaginaPorCursor() {
+        return mensagemService.listarMensagens(cursor, 10);
+    }
+
+    private static Mensagem novaMensagem() {
+        return Mensagem.builder()
+                .usuario("Jose")
+                .conteudo("conteúdo da mensagem")
+                .build();
+    }
+}
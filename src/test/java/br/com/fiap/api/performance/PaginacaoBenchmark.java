@@ -0,0 +1,85 @@
+package br.com.fiap.api.performance;
+
+import br.com.fiap.api.model.Mensagem;
+import br.com.fiap.api.model.MensagemCursor;
+import br.com.fiap.api.model.MensagemCursorPage;
+import br.com.fiap.api.util.UuidV7;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trechos do controller e da paginação executados a cada requisição: conversão do id recebido no path,
+ * codificação do cursor e montagem das páginas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaginacaoBenchmark {
+
+    private String id;
+    private String idInvalido;
+    private List<Mensagem> mensagens;
+    private String cursor;
+
+    @Setup
+    public void setup() {
+        id = UuidV7.gerar().toString();
+        idInvalido = "mensagem-inexistente";
+        mensagens = new ArrayList<>();
+        for (int i = 0; i < 11; i++) {
+            mensagens.add(Mensagem.builder()
+                    .id(UuidV7.gerar())
+                    .usuario("Jose")
+                    .conteudo("conteúdo da mensagem")
+                    .dataCriacao(new Date())
+                    .build());
+        }
+        cursor = MensagemCursor.de(mensagens.get(9)).codificar();
+    }
+
+    @Benchmark
+    public UUID converterId() {
+        return UUID.fromString(id);
+    }
+
+    @Benchmark
+    public void converterIdInvalido(Blackhole blackhole) {
+        try {
+            blackhole.consume(UUID.fromString(idInvalido));
+        } catch (IllegalArgumentException e) {
+            blackhole.consume(e);
+        }
+    }
+
+    @Benchmark
+    public String codificarCursor() {
+        return MensagemCursor.de(mensagens.get(9)).codificar();
+    }
+
+    @Benchmark
+    public MensagemCursor decodificarCursor() {
+        return MensagemCursor.decodificar(cursor);
+    }
+
+    @Benchmark
+    public MensagemCursorPage montarPaginaPorCursor() {
+        return MensagemCursorPage.de(mensagens, 10, false);
+    }
+
+    @Benchmark
+    public Page<Mensagem> montarPagina() {
+        return new PageImpl<>(mensagens.subList(0, 10), PageRequest.of(0, 10), 1000);
+    }
+}
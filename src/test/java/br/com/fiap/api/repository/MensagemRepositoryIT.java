@@ -1,15 +1,23 @@
 package br.com.fiap.api.repository;
 
+import br.com.fiap.api.model.EstadoDaMensagem;
 import br.com.fiap.api.model.Mensagem;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.test.context.ActiveProfiles;
 
+import javax.persistence.EntityManager;
 import javax.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
 import java.util.UUID;
 
 import static br.com.fiap.api.util.MensagemHelper.gerarMensagem;
@@ -23,6 +31,8 @@ class MensagemRepositoryIT {
 
     @Autowired
     private MensagemRepository mensagemRepository;
+    @Autowired
+    private EntityManager entityManager;
 
     @Test
     void devePermitirCriarTabela() {
@@ -100,6 +110,64 @@ class MensagemRepositoryIT {
         }
     }
 
+    @Nested
+    class AlterarConteudo {
+        @Test
+        void deveAlterarConteudoApenasEmUmDosEstadosAceitos() {
+            // Arrange
+            var mensagem = registrarMensagem(gerarMensagem().toBuilder().id(UUID.randomUUID()).build());
+            mensagemRepository.adicionarGostei(mensagem.getId(), 1);
+
+            // Act
+            var comGosteiDesatualizado = mensagemRepository.alterarConteudo(mensagem.getId(), "conteúdo alterado",
+                    List.of(new EstadoDaMensagem(0, 0)));
+            var comEstadoAtual = mensagemRepository.alterarConteudo(mensagem.getId(), "conteúdo alterado",
+                    List.of(new EstadoDaMensagem(0, 0), new EstadoDaMensagem(0, 1)));
+
+            // Assert
+            assertThat(comGosteiDesatualizado).isEmpty();
+            assertThat(comEstadoAtual).hasValueSatisfying(mensagemAlterada -> {
+                assertThat(mensagemAlterada.getConteudo()).isEqualTo("conteúdo alterado");
+                assertThat(mensagemAlterada.getGostei()).isEqualTo(1);
+                assertThat(mensagemAlterada.getVersao()).isEqualTo(1L);
+            });
+        }
+
+        @Test
+        void deveAlterarConteudoEmQualquerGostei_QuandoApenasVersaoInformada() {
+            // Arrange
+            var mensagem = registrarMensagem(gerarMensagem().toBuilder().id(UUID.randomUUID()).build());
+            mensagemRepository.adicionarGostei(mensagem.getId(), 1);
+
+            // Act
+            var mensagemAlterada = mensagemRepository.alterarConteudo(mensagem.getId(), "conteúdo alterado",
+                    List.of(EstadoDaMensagem.daVersao(0)));
+
+            // Assert
+            assertThat(mensagemAlterada).isPresent();
+        }
+    }
+
+    @Nested
+    class ResumirMensagens {
+        @Test
+        void deveSomarVersoesEGostei() {
+            // Arrange
+            var resumoInicial = mensagemRepository.resumirMensagens();
+            var mensagem = registrarMensagem(gerarMensagem().toBuilder().id(UUID.randomUUID()).build());
+            mensagemRepository.adicionarGostei(mensagem.getId(), 2);
+            mensagemRepository.alterarConteudo(mensagem.getId(), "conteúdo alterado", null);
+
+            // Act
+            var resumo = mensagemRepository.resumirMensagens();
+
+            // Assert
+            assertThat(resumo.getTotal()).isEqualTo(resumoInicial.getTotal() + 1);
+            assertThat(resumo.getVersoes()).isEqualTo(resumoInicial.getVersoes() + 1);
+            assertThat(resumo.getGosteis()).isEqualTo(resumoInicial.getGosteis() + 2);
+        }
+    }
+
     @Nested
     class ListarMensagens {
         @Test
@@ -122,6 +190,213 @@ class MensagemRepositoryIT {
                 assertThat(mensagem).isNotNull().isInstanceOf(Mensagem.class);
             });
         }
+
+        @Test
+        void devePermitirListarMensagensSemTotal() {
+            // Arrange
+            var totalDeRegistros = mensagemRepository.count();
+
+            // Act
+            var primeiraPagina = mensagemRepository.listarMensagensSemTotal(PageRequest.of(0, 2));
+            var ultimaPagina = mensagemRepository.listarMensagensSemTotal(PageRequest.of(0, (int) totalDeRegistros));
+
+            // Assert
+            assertThat(primeiraPagina.getContent()).containsExactlyElementsOf(mensagemRepository.listarMensagensRecentes(PageRequest.of(0, 2)));
+            assertThat(primeiraPagina.hasNext()).isTrue();
+            assertThat(ultimaPagina.getContent()).hasSize((int) totalDeRegistros);
+            assertThat(ultimaPagina.hasNext()).isFalse();
+        }
+    }
+
+    @Nested
+    class ListarMensagensPorCursor {
+        @Test
+        void devePermitirListarMensagensRecentes() {
+            // Act
+            var resultadosObtidos = mensagemRepository.listarMensagensRecentes(PageRequest.of(0, 2));
+
+            // Assert
+            assertThat(resultadosObtidos).hasSize(2);
+            assertThat(resultadosObtidos.get(0).getDataCriacao()).isAfterOrEqualTo(resultadosObtidos.get(1).getDataCriacao());
+        }
+
+        @Test
+        void devePermitirListarMensagensAnteriores() {
+            // Arrange
+            var mensagensRecentes = mensagemRepository.listarMensagensRecentes(PageRequest.of(0, 4));
+            var referencia = mensagensRecentes.get(1);
+
+            // Act
+            var resultadosObtidos = mensagemRepository.listarMensagensAnteriores(referencia.getDataCriacao(), referencia.getId(), PageRequest.of(0, 2));
+
+            // Assert
+            assertThat(resultadosObtidos).containsExactlyElementsOf(mensagensRecentes.subList(2, 4));
+        }
+
+        /**
+         * Mesma condição de {@link MensagemRepository#listarMensagensAnteriores}: o plano precisa limitar a varredura do
+         * índice pela data do cursor, e não apenas filtrar as linhas depois de lidas.
+         */
+        @Test
+        void deveIniciarVarreduraDoIndiceNoCursor() {
+            // Act
+            var plano = explicar("SELECT id FROM mensagem "
+                    + "WHERE data_criacao <= :dataCriacao AND (data_criacao < :dataCriacao OR id < :id) "
+                    + "ORDER BY data_criacao DESC, id DESC LIMIT 3");
+
+            // Assert
+            assertThat(plano).containsIgnoringCase("IDX_MENSAGEM_DATA_CRIACAO_ID: DATA_CRIACAO <= ");
+        }
+    }
+
+    @Nested
+    class ListarMensagensDoUsuario {
+        @Test
+        void devePermitirListarMensagensDoUsuario_PorCursor() {
+            // Arrange
+            var registradas = new ArrayList<UUID>();
+            for (int i = 0; i < 3; i++) {
+                var mensagem = gerarMensagem();
+                mensagem.setId(UUID.randomUUID());
+                mensagem.setUsuario("Maria");
+                registradas.add(mensagemRepository.save(mensagem).getId());
+            }
+
+            // Act
+            var primeiraPagina = mensagemRepository.listarMensagensRecentesDoUsuario("Maria", PageRequest.of(0, 2));
+            var referencia = primeiraPagina.get(1);
+            var segundaPagina = mensagemRepository.listarMensagensAnterioresDoUsuario(
+                    "Maria", referencia.getDataCriacao(), referencia.getId(), PageRequest.of(0, 2));
+
+            // Assert
+            assertThat(primeiraPagina).hasSize(2);
+            assertThat(primeiraPagina.get(0).getDataCriacao()).isAfterOrEqualTo(primeiraPagina.get(1).getDataCriacao());
+            assertThat(segundaPagina).hasSize(1);
+            var todas = new ArrayList<>(primeiraPagina);
+            todas.addAll(segundaPagina);
+            assertThat(todas).extracting(Mensagem::getId).containsExactlyInAnyOrderElementsOf(registradas);
+        }
+
+        @Test
+        void deveIniciarVarreduraDoIndiceNoCursor() {
+            // Act
+            var plano = explicar("SELECT id FROM mensagem WHERE usuario = :usuario "
+                    + "AND data_criacao <= :dataCriacao AND (data_criacao < :dataCriacao OR id < :id) "
+                    + "ORDER BY data_criacao DESC, id DESC LIMIT 3");
+
+            // Assert
+            assertThat(plano).containsPattern("(?is)IDX_MENSAGEM_USUARIO_DATA_CRIACAO_ID: USUARIO = .*AND DATA_CRIACAO <= ");
+        }
+    }
+
+    @Nested
+    class BuscarMensagens {
+        @Test
+        void devePermitirBuscarMensagensPorConteudo() {
+            // Act
+            var resultadosObtidos = mensagemRepository.buscarMensagens("XPTO", PageRequest.of(0, 2));
+
+            // Assert
+            assertThat(resultadosObtidos.getTotalElements()).isEqualTo(3);
+            assertThat(resultadosObtidos.getContent()).hasSize(2).allSatisfy(mensagem ->
+                    assertThat(mensagem.getConteudo()).contains("xpto"));
+        }
+
+        @Test
+        void devePermitirBuscarMensagensPorUsuarioEConteudo() {
+            // Act
+            var resultadosObtidos = mensagemRepository.buscarMensagens("dany 4455", PageRequest.of(0, 10));
+
+            // Assert
+            assertThat(resultadosObtidos.getContent()).singleElement().satisfies(mensagem ->
+                    assertThat(mensagem.getUsuario()).isEqualTo("Dany"));
+        }
+
+        @Test
+        void deveTratarCaracteresCuringaComoTexto() {
+            // Act
+            var resultadosObtidos = mensagemRepository.buscarMensagens("%", PageRequest.of(0, 10));
+
+            // Assert
+            assertThat(resultadosObtidos).isEmpty();
+        }
+    }
+
+    @Nested
+    class PercorrerMensagens {
+        @Test
+        void devePermitirPercorrerMensagens_SemManterEntidadesNoContexto() {
+            // Arrange
+            var mensagensPercorridas = new ArrayList<Mensagem>();
+
+            // Act
+            mensagemRepository.percorrerMensagens(mensagensPercorridas::add);
+
+            // Assert
+            assertThat(mensagensPercorridas).hasSize((int) mensagemRepository.count());
+            assertThat(mensagensPercorridas).noneMatch(entityManager::contains);
+        }
+    }
+
+    @Nested
+    class CacheDeConsultas {
+        @Test
+        @Transactional(Transactional.TxType.NOT_SUPPORTED)
+        void deveListarMensagensDoCacheDeConsultas_QuandoPaginaJaConsultada() {
+            // Arrange
+            var pageable = PageRequest.of(0, 5);
+            var paginaConsultada = mensagemRepository.listarMensagens(pageable);
+            var estatisticas = reiniciarEstatisticas();
+
+            // Act
+            var paginaRecebida = mensagemRepository.listarMensagens(pageable);
+
+            // Assert
+            assertThat(paginaRecebida.getContent()).isEqualTo(paginaConsultada.getContent());
+            assertThat(estatisticas.getPrepareStatementCount()).isZero();
+            assertThat(estatisticas.getQueryCacheHitCount()).isEqualTo(2);
+        }
+
+        /**
+         * O cache só é invalidado no fim da transação, então cada etapa precisa ser confirmada.
+         */
+        @Test
+        @Transactional(Transactional.TxType.NOT_SUPPORTED)
+        void deveDescartarPaginasDoCache_QuandoConteudoAlterado() {
+            // Arrange
+            var mensagem = registrarMensagem(gerarMensagem().toBuilder().id(UUID.randomUUID()).build());
+            var pageable = PageRequest.of(0, 5);
+            try {
+                mensagemRepository.listarMensagens(pageable);
+
+                // Act
+                mensagemRepository.alterarConteudo(mensagem.getId(), "conteúdo alterado", null);
+
+                // Assert
+                assertThat(mensagemRepository.listarMensagens(pageable).getContent())
+                        .filteredOn(mensagemListada -> mensagemListada.getId().equals(mensagem.getId()))
+                        .extracting(Mensagem::getConteudo)
+                        .containsExactly("conteúdo alterado");
+            } finally {
+                mensagemRepository.deleteById(mensagem.getId());
+            }
+        }
+
+        private Statistics reiniciarEstatisticas() {
+            var estatisticas = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+            estatisticas.clear();
+            return estatisticas;
+        }
+    }
+
+    private String explicar(String sql) {
+        var consulta = entityManager.createNativeQuery("EXPLAIN " + sql)
+                .setParameter("dataCriacao", new Date())
+                .setParameter("id", UUID.randomUUID());
+        if (sql.contains(":usuario")) {
+            consulta.setParameter("usuario", "Maria");
+        }
+        return (String) consulta.getSingleResult();
     }
 
     private Mensagem registrarMensagem(Mensagem mensagem) {
@@ -0,0 +1,129 @@
+package br.com.fiap.api.service;
+
+import br.com.fiap.api.config.CacheConfig;
+import br.com.fiap.api.repository.MensagemRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static br.com.fiap.api.util.MensagemHelper.gerarMensagem;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ContadorDeGosteiTest {
+
+    private ContadorDeGostei contador;
+    private ConcurrentMapCacheManager cacheManager;
+    @Mock
+    private MensagemRepository mensagemRepository;
+    @Mock
+    private MensagemTimeline timeline;
+
+    AutoCloseable mock;
+
+    @BeforeEach
+    void setup() {
+        mock = MockitoAnnotations.openMocks(this);
+        cacheManager = new ConcurrentMapCacheManager(CacheConfig.CACHE_MENSAGENS);
+        contador = new ContadorDeGostei(mensagemRepository, timeline, cacheManager);
+        when(mensagemRepository.adicionarGostei(any(UUID.class), anyInt())).thenReturn(1);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        mock.close();
+    }
+
+    @Nested
+    class Descarregar {
+        @Test
+        void deveGravarGosteiAcumuladosEmUmaUnicaAtualizacao() {
+            // Arrange
+            var id = UUID.randomUUID();
+            cacheManager.getCache(CacheConfig.CACHE_MENSAGENS).put(id, gerarMensagem());
+            for (int i = 0; i < 5; i++) {
+                contador.incrementar(id);
+            }
+
+            // Act
+            contador.descarregar();
+
+            // Assert
+            verify(mensagemRepository, times(1)).adicionarGostei(id, 5);
+            verify(timeline, times(1)).adicionarGostei(id, 5);
+            assertThat(cacheManager.getCache(CacheConfig.CACHE_MENSAGENS).get(id)).isNull();
+            assertThat(contador.pendentes(id)).isZero();
+        }
+
+        @Test
+        void naoDeveAcessarBanco_QuandoNaoHouverGostei() {
+            // Arrange
+            var id = UUID.randomUUID();
+            contador.incrementar(id);
+            contador.descarregar();
+
+            // Act
+            contador.descarregar();
+            contador.descarregar();
+
+            // Assert
+            verify(mensagemRepository, times(1)).adicionarGostei(any(UUID.class), anyInt());
+        }
+
+        @Test
+        void deveManterGosteiPendentes_QuandoGravacaoFalhar() {
+            // Arrange
+            var id = UUID.randomUUID();
+            contador.incrementar(id);
+            contador.incrementar(id);
+            when(mensagemRepository.adicionarGostei(id, 2)).thenThrow(new QueryTimeoutException("timeout"));
+
+            // Act
+            contador.descarregar();
+
+            // Assert
+            assertThat(contador.pendentes(id)).isEqualTo(2);
+            verify(timeline, never()).adicionarGostei(any(UUID.class), anyInt());
+        }
+
+        @Test
+        void naoDevePerderGostei_QuandoIncrementosConcorremComDescarga() throws Exception {
+            // Arrange
+            var id = UUID.randomUUID();
+            var executor = Executors.newFixedThreadPool(8);
+
+            // Act
+            for (int t = 0; t < 8; t++) {
+                executor.execute(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        contador.incrementar(id);
+                    }
+                });
+            }
+            executor.shutdown();
+            while (!executor.awaitTermination(1, TimeUnit.MILLISECONDS)) {
+                contador.descarregar();
+            }
+            contador.descarregar();
+            contador.descarregar();
+
+            // Assert
+            var captor = ArgumentCaptor.forClass(Integer.class);
+            verify(mensagemRepository, atLeastOnce()).adicionarGostei(eq(id), captor.capture());
+            assertThat(captor.getAllValues().stream().mapToInt(Integer::intValue).sum()).isEqualTo(80_000);
+        }
+    }
+}
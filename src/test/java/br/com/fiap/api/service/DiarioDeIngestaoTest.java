@@ -0,0 +1,178 @@
+package br.com.fiap.api.service;
+
+import br.com.fiap.api.model.Mensagem;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static br.com.fiap.api.util.MensagemHelper.gerarMensagem;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DiarioDeIngestaoTest {
+
+    private static final int TAMANHO_DO_SEGMENTO = 4096;
+
+    @TempDir
+    Path diretorio;
+
+    @Nested
+    class Recuperar {
+        @Test
+        void deveRecuperarMensagensNaoConfirmadas() throws Exception {
+            // Arrange
+            var diario = DiarioDeIngestao.abrir(diretorio, TAMANHO_DO_SEGMENTO);
+            var mensagens = registrar(diario, 3);
+            diario.confirmar(1);
+
+            // Act
+            var recuperadas = DiarioDeIngestao.abrir(diretorio, TAMANHO_DO_SEGMENTO).recuperar();
+
+            // Assert
+            assertThat(recuperadas).hasSize(2);
+            assertThat(recuperadas.get(0).getId()).isEqualTo(mensagens.get(1).getId());
+            assertThat(recuperadas.get(1).getUsuario()).isEqualTo(mensagens.get(2).getUsuario());
+            assertThat(recuperadas.get(1).getConteudo()).isEqualTo(mensagens.get(2).getConteudo());
+        }
+
+        @Test
+        void naoDeveRecuperarMensagens_QuandoTodasConfirmadas() throws Exception {
+            // Arrange
+            var diario = DiarioDeIngestao.abrir(diretorio, TAMANHO_DO_SEGMENTO);
+            registrar(diario, 3);
+            diario.confirmar(3);
+
+            // Act
+            var recuperadas = DiarioDeIngestao.abrir(diretorio, TAMANHO_DO_SEGMENTO).recuperar();
+
+            // Assert
+            assertThat(recuperadas).isEmpty();
+        }
+
+        @Test
+        void deveIgnorarRegistroIncompleto() throws Exception {
+            // Arrange
+            var diario = DiarioDeIngestao.abrir(diretorio, TAMANHO_DO_SEGMENTO);
+            var mensagens = registrar(diario, 2);
+            try (var arquivo = new RandomAccessFile(diretorio.resolve("ingestao-0.wal").toFile(), "rw")) {
+                // corrompe o último byte do segundo registro
+                var inicioDoSegundo = Long.BYTES + 3 * Integer.BYTES + tamanhoDoRegistro(mensagens.get(0));
+                arquivo.seek(inicioDoSegundo + 2 * Integer.BYTES + tamanhoDoRegistro(mensagens.get(1)) - 1);
+                arquivo.write(0xFF);
+            }
+
+            // Act
+            var reaberto = DiarioDeIngestao.abrir(diretorio, TAMANHO_DO_SEGMENTO);
+            registrar(reaberto, 1);
+            var recuperadas = DiarioDeIngestao.abrir(diretorio, TAMANHO_DO_SEGMENTO).recuperar();
+
+            // Assert
+            assertThat(recuperadas).hasSize(2);
+            assertThat(recuperadas.get(0).getId()).isEqualTo(mensagens.get(0).getId());
+            assertThat(recuperadas.get(1).getId()).isNotEqualTo(mensagens.get(1).getId());
+        }
+    }
+
+    @Nested
+    class Acrescentar {
+        @Test
+        void deveAlternarSegmentos_QuandoSegmentoCheio() throws Exception {
+            // Arrange
+            var diario = DiarioDeIngestao.abrir(diretorio, TAMANHO_DO_SEGMENTO);
+            var primeiroSegmento = registrarAteEncher(diario);
+            diario.confirmar(primeiroSegmento.size() - 1);
+
+            // Act
+            var segundoSegmento = registrar(diario, 2);
+
+            // Assert
+            var recuperadas = DiarioDeIngestao.abrir(diretorio, TAMANHO_DO_SEGMENTO).recuperar();
+            assertThat(recuperadas).extracting(Mensagem::getId).containsExactly(
+                    primeiroSegmento.get(primeiroSegmento.size() - 1).getId(),
+                    segundoSegmento.get(0).getId(),
+                    segundoSegmento.get(1).getId());
+        }
+
+        @Test
+        void deveRecusarMensagem_QuandoSegmentosCheiosDeMensagensPendentes() throws Exception {
+            // Arrange
+            var diario = DiarioDeIngestao.abrir(diretorio, TAMANHO_DO_SEGMENTO);
+            var primeiroSegmento = registrarAteEncher(diario);
+            var segundoSegmento = registrarAteEncher(diario);
+
+            // Act
+            var sequencia = diario.acrescentar(novaMensagem());
+
+            // Assert
+            assertThat(sequencia).isNegative();
+            assertThat(diario.pendentes()).isEqualTo(primeiroSegmento.size() + segundoSegmento.size());
+        }
+
+        @Test
+        void deveVoltarAoInicio_QuandoTodasConfirmadas() throws Exception {
+            // Arrange
+            var diario = DiarioDeIngestao.abrir(diretorio, TAMANHO_DO_SEGMENTO);
+            var mensagens = registrarAteEncher(diario);
+            diario.confirmar(mensagens.size());
+
+            // Act
+            var maisMensagens = registrarAteEncher(diario);
+
+            // Assert
+            assertThat(maisMensagens).hasSameSizeAs(mensagens);
+            assertThat(diario.pendentes()).isEqualTo(maisMensagens.size());
+        }
+    }
+
+    @Nested
+    class Abrir {
+        @Test
+        void deveGerarExcecao_QuandoSegmentoNaoComportaRegistro() {
+            assertThatThrownBy(() -> DiarioDeIngestao.abrir(diretorio, 8))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    private static List<Mensagem> registrar(DiarioDeIngestao diario, int quantidade) {
+        var mensagens = new ArrayList<Mensagem>();
+        for (int i = 0; i < quantidade; i++) {
+            var mensagem = novaMensagem();
+            diario.sincronizar(diario.acrescentar(mensagem));
+            mensagens.add(mensagem);
+        }
+        return mensagens;
+    }
+
+    /**
+     * Registra mensagens até o segmento ativo não ter mais espaço, sem passar para o outro.
+     */
+    private static List<Mensagem> registrarAteEncher(DiarioDeIngestao diario) {
+        var mensagens = new ArrayList<Mensagem>();
+        var tamanho = Long.BYTES + 2 * Integer.BYTES;
+        var mensagem = novaMensagem();
+        while (tamanho + 2 * Integer.BYTES + tamanhoDoRegistro(mensagem) <= TAMANHO_DO_SEGMENTO) {
+            diario.sincronizar(diario.acrescentar(mensagem));
+            mensagens.add(mensagem);
+            tamanho += 2 * Integer.BYTES + tamanhoDoRegistro(mensagem);
+            mensagem = novaMensagem();
+        }
+        return mensagens;
+    }
+
+    private static int tamanhoDoRegistro(Mensagem mensagem) {
+        return 2 * Long.BYTES + 2 * Integer.BYTES
+                + mensagem.getUsuario().getBytes(StandardCharsets.UTF_8).length
+                + mensagem.getConteudo().getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static Mensagem novaMensagem() {
+        return gerarMensagem().toBuilder().id(UUID.randomUUID()).build();
+    }
+}
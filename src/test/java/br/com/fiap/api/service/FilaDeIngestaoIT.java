@@ -0,0 +1,100 @@
+package br.com.fiap.api.service;
+
+import br.com.fiap.api.config.MensagensProperties;
+import br.com.fiap.api.model.Mensagem;
+import br.com.fiap.api.repository.MensagemRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static br.com.fiap.api.util.MensagemHelper.gerarMensagem;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sem a transação do teste: cada lote é gravado e confirmado como na aplicação, e as falhas do banco precisam
+ * acontecer de verdade.
+ */
+@SpringBootTest
+@AutoConfigureTestDatabase
+@ActiveProfiles("test")
+class FilaDeIngestaoIT {
+
+    private static final UUID ID_GRAVADO = UUID.fromString("1cefa737-2120-4291-8e14-465c42bffec3");
+
+    @Autowired
+    private MensagemRepository mensagemRepository;
+    @Autowired
+    private MensagemTimeline timeline;
+
+    private FilaDeIngestao fila;
+    private SimpleMeterRegistry registry;
+    private final List<UUID> gravadas = new ArrayList<>();
+
+    @BeforeEach
+    void setup() {
+        registry = new SimpleMeterRegistry();
+        fila = new FilaDeIngestao(mensagemRepository, timeline, new MensagensProperties(), registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        gravadas.forEach(mensagemRepository::deleteById);
+    }
+
+    @Nested
+    class Descarregar {
+        @Test
+        void deveGravarMensagensValidas_QuandoLoteTemMensagemJaGravada() {
+            // Arrange
+            var valida = novaMensagem();
+            var jaGravada = gerarMensagem().toBuilder().id(ID_GRAVADO).conteudo("reenviada pelo diário").build();
+            fila.adicionar(valida);
+            fila.adicionar(jaGravada);
+
+            // Act
+            fila.descarregar();
+
+            // Assert
+            assertThat(fila.ocupacao()).isZero();
+            assertThat(mensagemRepository.existsById(valida.getId())).isTrue();
+            assertThat(mensagemRepository.buscarMensagem(ID_GRAVADO)).hasValueSatisfying(mensagem ->
+                    assertThat(mensagem.getConteudo()).isNotEqualTo("reenviada pelo diário"));
+            assertThat(registry.get("mensagens.ingestao.descartadas").counter().count()).isEqualTo(1);
+        }
+
+        @Test
+        void deveGravarApenasUmaMensagem_QuandoLoteRepeteOId() {
+            // Arrange
+            var mensagem = novaMensagem();
+            fila.adicionar(mensagem);
+            fila.adicionar(mensagem.toBuilder().build());
+            var seguinte = novaMensagem();
+            fila.adicionar(seguinte);
+
+            // Act
+            fila.descarregar();
+
+            // Assert
+            assertThat(fila.ocupacao()).isZero();
+            assertThat(mensagemRepository.existsById(mensagem.getId())).isTrue();
+            assertThat(mensagemRepository.existsById(seguinte.getId())).isTrue();
+            assertThat(registry.get("mensagens.ingestao.descartadas").counter().count()).isEqualTo(1);
+        }
+    }
+
+    private Mensagem novaMensagem() {
+        var mensagem = gerarMensagem().toBuilder().id(UUID.randomUUID()).build();
+        gravadas.add(mensagem.getId());
+        return mensagem;
+    }
+}
@@ -0,0 +1,241 @@
+package br.com.fiap.api.service;
+
+import br.com.fiap.api.config.MensagensProperties;
+import br.com.fiap.api.model.Mensagem;
+import br.com.fiap.api.repository.MensagemRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static br.com.fiap.api.util.MensagemHelper.gerarMensagem;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class FilaDeIngestaoTest {
+
+    private FilaDeIngestao fila;
+    private SimpleMeterRegistry registry;
+    @Mock
+    private MensagemRepository mensagemRepository;
+    @Mock
+    private MensagemTimeline timeline;
+
+    AutoCloseable mock;
+
+    @BeforeEach
+    void setup() {
+        mock = MockitoAnnotations.openMocks(this);
+        var properties = new MensagensProperties();
+        properties.getIngestao().setCapacidade(5);
+        properties.getIngestao().setTamanhoDoLote(2);
+        registry = new SimpleMeterRegistry();
+        fila = new FilaDeIngestao(mensagemRepository, timeline, properties, registry);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        mock.close();
+    }
+
+    @Nested
+    class Adicionar {
+        @Test
+        void deveRecusarMensagem_QuandoFilaCheia() {
+            // Arrange
+            for (int i = 0; i < 5; i++) {
+                assertThat(fila.adicionar(novaMensagem())).isTrue();
+            }
+
+            // Act
+            var aceita = fila.adicionar(novaMensagem());
+
+            // Assert
+            assertThat(aceita).isFalse();
+            assertThat(fila.ocupacao()).isEqualTo(5);
+            assertThat(registry.get("mensagens.ingestao.fila").gauge().value()).isEqualTo(5);
+            assertThat(registry.get("mensagens.ingestao.recusadas").counter().count()).isEqualTo(1);
+        }
+    }
+
+    @Nested
+    class Descarregar {
+        @Test
+        void deveGravarMensagensEmLotes() {
+            // Arrange
+            var mensagens = new ArrayList<Mensagem>();
+            for (int i = 0; i < 5; i++) {
+                mensagens.add(novaMensagem());
+                fila.adicionar(mensagens.get(i));
+            }
+            var lotes = new ArrayList<List<Mensagem>>();
+            when(mensagemRepository.inserirEmLote(anyList())).thenAnswer(i -> {
+                lotes.add(new ArrayList<>(i.getArgument(0)));
+                return i.getArgument(0);
+            });
+
+            // Act
+            fila.descarregar();
+
+            // Assert
+            assertThat(lotes).hasSize(3);
+            assertThat(lotes.get(0)).containsExactlyElementsOf(mensagens.subList(0, 2));
+            assertThat(lotes.get(2)).containsExactly(mensagens.get(4));
+            assertThat(fila.ocupacao()).isZero();
+            assertThat(registry.get("mensagens.ingestao.gravacao").timer().count()).isEqualTo(3);
+            verify(timeline).registrar(mensagens.subList(0, 2));
+            verify(timeline, times(3)).registrar(anyList());
+        }
+
+        @Test
+        void deveManterLote_QuandoBancoIndisponivel() {
+            // Arrange
+            var mensagem = novaMensagem();
+            fila.adicionar(mensagem);
+            when(mensagemRepository.inserirEmLote(anyList()))
+                    .thenThrow(new QueryTimeoutException("timeout"))
+                    .thenAnswer(i -> i.getArgument(0));
+
+            // Act
+            fila.descarregar();
+            var ocupacaoAposFalha = fila.ocupacao();
+            fila.descarregar();
+
+            // Assert
+            assertThat(ocupacaoAposFalha).isEqualTo(1);
+            assertThat(fila.ocupacao()).isZero();
+            @SuppressWarnings("unchecked")
+            ArgumentCaptor<List<Mensagem>> captor = ArgumentCaptor.forClass(List.class);
+            verify(mensagemRepository, times(2)).inserirEmLote(captor.capture());
+            assertThat(captor.getAllValues().get(1)).containsExactly(mensagem);
+        }
+
+        @Test
+        void deveDescartarApenasMensagemRecusadaPeloBanco() {
+            // Arrange
+            var valida = novaMensagem();
+            var invalida = novaMensagem();
+            fila.adicionar(valida);
+            fila.adicionar(invalida);
+            when(mensagemRepository.inserirEmLote(anyList())).thenThrow(new DataIntegrityViolationException("valor muito longo"));
+            when(mensagemRepository.inserir(any(Mensagem.class))).thenAnswer(i -> {
+                if (i.getArgument(0) == invalida) {
+                    throw new DataIntegrityViolationException("valor muito longo");
+                }
+                return i.getArgument(0);
+            });
+
+            // Act
+            fila.descarregar();
+
+            // Assert
+            verify(mensagemRepository).inserir(valida);
+            assertThat(fila.ocupacao()).isZero();
+            assertThat(registry.get("mensagens.ingestao.descartadas").counter().count()).isEqualTo(1);
+        }
+
+        @Test
+        void deveDescartarMensagem_QuandoFalhaNaoTransitoria() {
+            // Arrange
+            var valida = novaMensagem();
+            var invalida = novaMensagem();
+            fila.adicionar(valida);
+            fila.adicionar(invalida);
+            when(mensagemRepository.inserirEmLote(anyList())).thenAnswer(i -> {
+                List<Mensagem> lote = i.getArgument(0);
+                // o persist preenche a versão antes de o lote falhar
+                lote.forEach(mensagem -> mensagem.setVersao(0L));
+                throw new InvalidDataAccessApiUsageException("detached entity passed to persist");
+            });
+            var versoesAoInserir = new ArrayList<Long>();
+            when(mensagemRepository.inserir(any(Mensagem.class))).thenAnswer(i -> {
+                Mensagem mensagem = i.getArgument(0);
+                versoesAoInserir.add(mensagem.getVersao());
+                if (mensagem == invalida) {
+                    throw new InvalidDataAccessApiUsageException("detached entity passed to persist");
+                }
+                return mensagem;
+            });
+
+            // Act
+            fila.descarregar();
+
+            // Assert
+            verify(mensagemRepository).inserir(valida);
+            assertThat(versoesAoInserir).containsOnlyNulls();
+            assertThat(fila.ocupacao()).isZero();
+            assertThat(registry.get("mensagens.ingestao.descartadas").counter().count()).isEqualTo(1);
+        }
+    }
+
+    @Nested
+    class Diario {
+        @TempDir
+        Path diretorio;
+
+        @Test
+        void deveReenfileirarMensagensNaoGravadas_QuandoReiniciar() {
+            // Arrange
+            var mensagens = List.of(novaMensagem(), novaMensagem());
+            var antesDaParada = new FilaDeIngestao(mensagemRepository, timeline, propriedadesComDiario(), new SimpleMeterRegistry());
+            mensagens.forEach(antesDaParada::adicionar);
+            when(mensagemRepository.inserirEmLote(anyList())).thenAnswer(i -> i.getArgument(0));
+
+            // Act
+            var aposParada = new FilaDeIngestao(mensagemRepository, timeline, propriedadesComDiario(), new SimpleMeterRegistry());
+            var ocupacaoAposParada = aposParada.ocupacao();
+            aposParada.descarregar();
+
+            // Assert
+            assertThat(ocupacaoAposParada).isEqualTo(2);
+            @SuppressWarnings("unchecked")
+            ArgumentCaptor<List<Mensagem>> captor = ArgumentCaptor.forClass(List.class);
+            verify(mensagemRepository).inserirEmLote(captor.capture());
+            assertThat(captor.getValue()).extracting(Mensagem::getId)
+                    .containsExactly(mensagens.get(0).getId(), mensagens.get(1).getId());
+            assertThat(new FilaDeIngestao(mensagemRepository, timeline, propriedadesComDiario(), new SimpleMeterRegistry())
+                    .ocupacao()).isZero();
+        }
+
+        @Test
+        void deveGerarExcecao_QuandoSegmentoMaiorQueUmMapeamento() {
+            // Arrange
+            var properties = propriedadesComDiario();
+            properties.getIngestao().getDiario().setTamanhoDoSegmento(DataSize.ofGigabytes(2));
+
+            // Act & Assert
+            assertThatThrownBy(() -> new FilaDeIngestao(mensagemRepository, timeline, properties, new SimpleMeterRegistry()))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("tamanho-do-segmento");
+        }
+
+        private MensagensProperties propriedadesComDiario() {
+            var properties = new MensagensProperties();
+            properties.getIngestao().getDiario().setHabilitado(true);
+            properties.getIngestao().getDiario().setDiretorio(diretorio.toString());
+            properties.getIngestao().getDiario().setTamanhoDoSegmento(DataSize.ofKilobytes(64));
+            return properties;
+        }
+    }
+
+    private static Mensagem novaMensagem() {
+        return gerarMensagem().toBuilder().id(UUID.randomUUID()).build();
+    }
+}
@@ -1,18 +1,26 @@
 package br.com.fiap.api.service;
 
+import br.com.fiap.api.config.CacheConfig;
+import br.com.fiap.api.exception.MensagemDesatualizadaException;
 import br.com.fiap.api.exception.MensagemNotFoundException;
 import br.com.fiap.api.model.Mensagem;
 import br.com.fiap.api.repository.MensagemRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import java.util.Arrays;
 import java.util.UUID;
 
 import static br.com.fiap.api.util.MensagemHelper.gerarMensagem;
@@ -29,6 +37,14 @@ class MensagemServiceIT {
     private MensagemRepository mensagemRepository;
     @Autowired
     private MensagemService mensagemService;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private ContadorDeGostei contadorDeGostei;
+    @Autowired
+    private FilaDeIngestao filaDeIngestao;
 
     @Nested
     class RegistrarMensagem {
@@ -45,6 +61,64 @@ class MensagemServiceIT {
             assertThat(resultadoObtido.getDataCriacao()).isNotNull();
             assertThat(resultadoObtido.getGostei()).isZero();
         }
+
+        @Test
+        void deveExecutarUmaUnicaInstrucao_QuandoRegistrarMensagem() {
+            var estatisticas = reiniciarEstatisticas();
+
+            mensagemService.registrarMensagem(gerarMensagem());
+            entityManager.flush();
+
+            assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(1);
+            assertThat(estatisticas.getEntityInsertCount()).isEqualTo(1);
+            assertThat(estatisticas.getEntityLoadCount()).isZero();
+        }
+    }
+
+    @Nested
+    class EnfileirarMensagem {
+        @Test
+        void deveGravarMensagem_QuandoDescarregarFila() {
+            // Arrange
+            var mensagem = gerarMensagem();
+
+            // Act
+            var mensagemAceita = mensagemService.enfileirarMensagem(mensagem);
+            var antesDaDescarga = mensagemRepository.findById(mensagemAceita.getId());
+            filaDeIngestao.descarregar();
+
+            // Assert
+            assertThat(antesDaDescarga).isEmpty();
+            assertThat(filaDeIngestao.ocupacao()).isZero();
+            assertThat(mensagemRepository.findById(mensagemAceita.getId()))
+                    .isPresent()
+                    .hasValueSatisfying(m -> assertThat(m.getConteudo()).isEqualTo(mensagem.getConteudo()));
+        }
+    }
+
+    @Nested
+    class RegistrarMensagens {
+        @Test
+        void devePermitirRegistrarMensagens() {
+            var mensagens = Arrays.asList(gerarMensagem(), gerarMensagem(), gerarMensagem());
+
+            var resultadoObtido = mensagemService.registrarMensagens(mensagens);
+
+            assertThat(resultadoObtido.getRegistradas()).isEqualTo(3);
+            assertThat(resultadoObtido.getItens()).allSatisfy(item ->
+                    assertThat(mensagemRepository.findById(item.getId())).isPresent());
+        }
+
+        @Test
+        void deveInserirMensagensEmLote() {
+            var mensagens = Arrays.asList(gerarMensagem(), gerarMensagem(), gerarMensagem());
+            var estatisticas = reiniciarEstatisticas();
+
+            mensagemService.registrarMensagens(mensagens);
+
+            assertThat(estatisticas.getEntityInsertCount()).isEqualTo(3);
+            assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(1);
+        }
     }
 
     @Nested
@@ -63,7 +137,7 @@ class MensagemServiceIT {
             assertThat(resultadoObtido.getId()).isNotNull().isEqualTo(mensagemSalva.getId());
             assertThat(resultadoObtido.getUsuario()).isNotNull().isEqualTo(mensagemSalva.getUsuario());
             assertThat(resultadoObtido.getConteudo()).isNotNull().isEqualTo(mensagemSalva.getConteudo());
-            assertThat(resultadoObtido.getDataCriacao()).isNotNull().isEqualTo(mensagemSalva.getDataCriacao());
+            assertThat(resultadoObtido.getDataCriacao()).isNotNull().hasSameTimeAs(mensagemSalva.getDataCriacao());
             assertThat(resultadoObtido.getGostei()).isEqualTo(mensagemSalva.getGostei());
         }
 
@@ -72,6 +146,18 @@ class MensagemServiceIT {
             var id = UUID.randomUUID();
             assertThatThrownBy(() -> mensagemService.buscarMensagem(id)).isInstanceOf(MensagemNotFoundException.class).hasMessage("Mensagem não encontrada");
         }
+
+        @Test
+        void deveExecutarUmaUnicaConsulta_QuandoBuscarMensagem() {
+            var mensagem = mensagemService.registrarMensagem(gerarMensagem());
+            var estatisticas = reiniciarEstatisticas();
+
+            var mensagemObtida = mensagemService.buscarMensagem(mensagem.getId());
+
+            assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(1);
+            assertThat(estatisticas.getEntityLoadCount()).isZero();
+            assertThat(entityManager.contains(mensagemObtida)).isFalse();
+        }
     }
 
     @Nested
@@ -92,6 +178,26 @@ class MensagemServiceIT {
             assertThat(resultadoObtido.getConteudo()).isEqualTo(mensagem.getConteudo());
         }
 
+        @Test
+        void deveIncrementarVersao_QuandoAlterarMensagem() {
+            var mensagem = mensagemService.registrarMensagem(gerarMensagem());
+            var mensagemNova = Mensagem.builder().id(mensagem.getId()).conteudo("conteúdo alterado").versao(0L).build();
+
+            var resultadoObtido = mensagemService.alterarMensagem(mensagem.getId(), mensagemNova);
+
+            assertThat(mensagem.getVersao()).isNotNull();
+            assertThat(resultadoObtido.getVersao()).isEqualTo(1L);
+        }
+
+        @Test
+        void deveGerarExcecao_QuandoAlterarMensagem_VersaoDesatualizada() {
+            var mensagem = mensagemService.registrarMensagem(gerarMensagem());
+            var mensagemNova = Mensagem.builder().id(mensagem.getId()).conteudo("conteúdo alterado").versao(5L).build();
+
+            assertThatThrownBy(() -> mensagemService.alterarMensagem(mensagem.getId(), mensagemNova))
+                    .isInstanceOf(MensagemDesatualizadaException.class);
+        }
+
         @Test
         void deveGerarExcecao_QuandoAlterarMensagem_IdNaoExiste() {
             var id = UUID.randomUUID();
@@ -112,6 +218,26 @@ class MensagemServiceIT {
             assertThatThrownBy(() -> mensagemService.alterarMensagem(mensagemAntiga.getId(), mensagemNova)).isInstanceOf(MensagemNotFoundException.class).hasMessage("Mensagem atualizada não apresenta o ID correto");
 
         }
+
+        @Test
+        void deveAlterarMensagemSemCarregarEntidade() {
+            var mensagem = mensagemService.registrarMensagem(gerarMensagem());
+            var estatisticas = reiniciarEstatisticas();
+            var mensagemNova = Mensagem.builder()
+                    .id(mensagem.getId())
+                    .conteudo("conteúdo alterado")
+                    .build();
+
+            var resultadoObtido = mensagemService.alterarMensagem(mensagem.getId(), mensagemNova);
+            entityManager.flush();
+
+            // o UPDATE condicionado à versão e a leitura da projeção alterada
+            assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(2);
+            assertThat(estatisticas.getEntityLoadCount()).isZero();
+            assertThat(resultadoObtido.getUsuario()).isEqualTo(mensagem.getUsuario());
+            assertThat(resultadoObtido.getDataCriacao()).hasSameTimeAs(mensagem.getDataCriacao());
+            assertThat(resultadoObtido.getVersao()).isEqualTo(1L);
+        }
     }
 
     @Nested
@@ -129,6 +255,50 @@ class MensagemServiceIT {
             var mensagem = mensagemService.registrarMensagem(gerarMensagem());
             assertThatThrownBy(() -> mensagemService.removerMensagem(UUID.randomUUID())).isInstanceOf(MensagemNotFoundException.class).hasMessage("Mensagem não encontrada");
         }
+
+        @Test
+        void deveRemoverMensagemComUmaUnicaInstrucao() {
+            var mensagem = mensagemService.registrarMensagem(gerarMensagem());
+            var estatisticas = reiniciarEstatisticas();
+
+            mensagemService.removerMensagem(mensagem.getId());
+            entityManager.flush();
+
+            assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(1);
+            assertThat(estatisticas.getEntityLoadCount()).isZero();
+            assertThat(mensagemRepository.existsById(mensagem.getId())).isFalse();
+        }
+    }
+
+    @Nested
+    class RegistrarGostei {
+        @Test
+        void deveGravarGosteiAcumuladosComUmaUnicaInstrucao() {
+            var id = UUID.fromString("1cefa737-2120-4291-8e14-465c42bffec3");
+            var gosteiAnteriores = mensagemService.buscarMensagem(id).getGostei();
+            for (int i = 0; i < 3; i++) {
+                mensagemService.registrarGostei(id);
+            }
+            var estatisticas = reiniciarEstatisticas();
+
+            contadorDeGostei.descarregar();
+            entityManager.clear();
+
+            assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(1);
+            assertThat(cacheManager.getCache(CacheConfig.CACHE_MENSAGENS).get(id)).isNull();
+            assertThat(mensagemRepository.findById(id)).hasValueSatisfying(mensagem ->
+                    assertThat(mensagem.getGostei()).isEqualTo(gosteiAnteriores + 3));
+        }
+
+        @Test
+        void deveDescartarGostei_QuandoMensagemNaoExiste() {
+            var id = UUID.randomUUID();
+            mensagemService.registrarGostei(id);
+
+            contadorDeGostei.descarregar();
+
+            assertThat(contadorDeGostei.pendentes(id)).isZero();
+        }
     }
 
     @Nested
@@ -142,6 +312,79 @@ class MensagemServiceIT {
                 assertThat(mensagem).isNotNull().isInstanceOf(Mensagem.class);
             });
         }
+
+        @Test
+        void naoDeveGerenciarMensagens_QuandoListarMensagens() {
+            entityManager.clear();
+            var estatisticas = reiniciarEstatisticas();
+
+            var mensagens = mensagemService.listarMensagens(PageRequest.of(0, 3));
+
+            assertThat(mensagens.getContent()).hasSize(3).noneMatch(entityManager::contains);
+            assertThat(estatisticas.getEntityLoadCount()).isZero();
+        }
+
+        @Test
+        void naoDeveContarMensagens_QuandoListarMensagensSemTotal() {
+            var estatisticas = reiniciarEstatisticas();
+
+            var mensagens = mensagemService.listarMensagensSemTotal(PageRequest.of(0, 2));
+
+            assertThat(mensagens.getContent()).hasSize(2);
+            assertThat(mensagens.hasNext()).isTrue();
+            assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(1);
+        }
+    }
+
+    @Nested
+    class CacheDeMensagens {
+        @Test
+        void deveObterMensagemDoCache_QuandoBuscarMensagemNovamente() {
+            var mensagem = mensagemService.registrarMensagem(gerarMensagem());
+            var estatisticas = reiniciarEstatisticas();
+
+            var primeiraBusca = mensagemService.buscarMensagem(mensagem.getId());
+            var segundaBusca = mensagemService.buscarMensagem(mensagem.getId());
+
+            assertThat(segundaBusca).isSameAs(primeiraBusca);
+            assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(1);
+        }
+
+        @Test
+        void deveInvalidarCache_QuandoAlterarMensagem() {
+            var mensagem = mensagemService.registrarMensagem(gerarMensagem());
+            mensagemService.buscarMensagem(mensagem.getId());
+            var mensagemNova = Mensagem.builder()
+                    .id(mensagem.getId())
+                    .conteudo("conteúdo alterado")
+                    .build();
+
+            mensagemService.alterarMensagem(mensagem.getId(), mensagemNova);
+
+            assertThat(cacheManager.getCache(CacheConfig.CACHE_MENSAGENS).get(mensagem.getId())).isNull();
+            assertThat(mensagemService.buscarMensagem(mensagem.getId()).getConteudo()).isEqualTo("conteúdo alterado");
+        }
+
+        @Test
+        void deveInvalidarCache_QuandoRemoverMensagem() {
+            var mensagem = mensagemService.registrarMensagem(gerarMensagem());
+            mensagemService.buscarMensagem(mensagem.getId());
+
+            mensagemService.removerMensagem(mensagem.getId());
+
+            assertThatThrownBy(() -> mensagemService.buscarMensagem(mensagem.getId())).isInstanceOf(MensagemNotFoundException.class);
+        }
+    }
+
+    private Statistics reiniciarEstatisticas() {
+        entityManager.flush();
+        entityManager.clear();
+        // as instruções contadas não devem ser evitadas por consultas de outros testes no cache de segundo nível
+        var sessionFactory = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        var estatisticas = sessionFactory.getStatistics();
+        estatisticas.clear();
+        return estatisticas;
     }
 
 }
@@ -1,7 +1,12 @@
 package br.com.fiap.api.service;
 
+import br.com.fiap.api.exception.FilaDeIngestaoCheiaException;
+import br.com.fiap.api.exception.MensagemDesatualizadaException;
 import br.com.fiap.api.exception.MensagemNotFoundException;
+import br.com.fiap.api.model.EstadoDaMensagem;
 import br.com.fiap.api.model.Mensagem;
+import br.com.fiap.api.model.MensagemCursor;
+import br.com.fiap.api.model.ResultadoLote;
 import br.com.fiap.api.repository.MensagemRepository;
 import io.qameta.allure.Description;
 import io.qameta.allure.Severity;
@@ -14,15 +19,26 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 
+import javax.validation.ConstraintViolationException;
+import javax.validation.Validation;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import static br.com.fiap.api.util.MensagemHelper.gerarMensagem;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 class MensagemServiceTest {
@@ -30,13 +46,19 @@ class MensagemServiceTest {
     private MensagemService mensagemService;
     @Mock
     private MensagemRepository mensagemRepository;
+    @Mock
+    private MensagemTimeline timeline;
+    @Mock
+    private ContadorDeGostei contadorDeGostei;
+    @Mock
+    private FilaDeIngestao filaDeIngestao;
 
     AutoCloseable mock;
 
     @BeforeEach
     void setup() {
         mock = MockitoAnnotations.openMocks(this);
-        mensagemService = new MensagemServiceImpl(mensagemRepository);
+        mensagemService = new MensagemServiceImpl(mensagemRepository, timeline, Validation.buildDefaultValidatorFactory().getValidator(), contadorDeGostei, filaDeIngestao);
     }
 
     @AfterEach
@@ -52,7 +74,7 @@ class MensagemServiceTest {
         void devePermitirRegistrarMensagem() {
             // Arrange
             var mensagem = gerarMensagem();
-            when(mensagemRepository.save(any(Mensagem.class)))
+            when(mensagemRepository.inserir(any(Mensagem.class)))
                     .thenAnswer(i -> i.getArgument(0));
             // Act
             var mensageRegistrada = mensagemService.registrarMensagem(mensagem);
@@ -61,7 +83,120 @@ class MensagemServiceTest {
             assertThat(mensageRegistrada.getConteudo()).isEqualTo(mensagem.getConteudo());
             assertThat(mensageRegistrada.getUsuario()).isEqualTo(mensagem.getUsuario());
             assertThat(mensagem.getId()).isNotNull();
-            verify(mensagemRepository, times(1)).save(any(Mensagem.class));
+            verify(mensagemRepository, times(1)).inserir(any(Mensagem.class));
+            verify(mensagemRepository, never()).save(any(Mensagem.class));
+            verify(timeline, times(1)).registrar(mensageRegistrada);
+        }
+    }
+
+    @Nested
+    class EnfileirarMensagem {
+        @Test
+        void devePermitirEnfileirarMensagem() {
+            // Arrange
+            var mensagem = gerarMensagem().toBuilder().gostei(3).build();
+            when(filaDeIngestao.adicionar(any(Mensagem.class))).thenReturn(true);
+
+            // Act
+            var mensagemAceita = mensagemService.enfileirarMensagem(mensagem);
+
+            // Assert
+            assertThat(mensagemAceita.getId()).isNotNull();
+            assertThat(mensagemAceita.getDataCriacao()).isNull();
+            assertThat(mensagemAceita.getGostei()).isZero();
+            verify(filaDeIngestao, times(1)).adicionar(argThat(copia -> copia != mensagem && copia.getId().equals(mensagem.getId())));
+            verify(mensagemRepository, never()).inserir(any(Mensagem.class));
+        }
+
+        @Test
+        void deveGerarExcecao_QuandoFilaCheia() {
+            // Arrange
+            when(filaDeIngestao.adicionar(any(Mensagem.class))).thenReturn(false);
+
+            // Act & Assert
+            assertThatThrownBy(() -> mensagemService.enfileirarMensagem(gerarMensagem()))
+                    .isInstanceOf(FilaDeIngestaoCheiaException.class)
+                    .hasMessage("A fila de mensagens está cheia, tente novamente mais tarde");
+        }
+
+        @Test
+        void deveGerarExcecao_QuandoMensagemInvalida() {
+            // Act & Assert
+            assertThatThrownBy(() -> mensagemService.enfileirarMensagem(Mensagem.builder().conteudo("sem usuário").build()))
+                    .isInstanceOf(ConstraintViolationException.class);
+            verify(filaDeIngestao, never()).adicionar(any(Mensagem.class));
+        }
+    }
+
+    @Nested
+    class RegistrarMensagens {
+        @Test
+        void devePermitirRegistrarMensagens() {
+            // Arrange
+            var mensagens = Arrays.asList(gerarMensagem(), gerarMensagem());
+            when(mensagemRepository.inserirEmLote(anyList())).thenAnswer(i -> i.getArgument(0));
+
+            // Act
+            var resultado = mensagemService.registrarMensagens(mensagens);
+
+            // Assert
+            assertThat(resultado.getTotal()).isEqualTo(2);
+            assertThat(resultado.getRegistradas()).isEqualTo(2);
+            assertThat(resultado.getRejeitadas()).isZero();
+            assertThat(resultado.getItens()).extracting(ResultadoLote.Item::getId)
+                    .containsExactly(mensagens.get(0).getId(), mensagens.get(1).getId())
+                    .doesNotContainNull();
+            verify(mensagemRepository, times(1)).inserirEmLote(mensagens);
+            verify(mensagemRepository, never()).save(any(Mensagem.class));
+            verify(timeline, times(1)).registrar(mensagens);
+        }
+
+        @Test
+        void deveRejeitarApenasMensagensInvalidas() {
+            // Arrange
+            var mensagemValida = gerarMensagem();
+            var mensagemInvalida = Mensagem.builder().conteudo("sem usuário").build();
+            when(mensagemRepository.inserirEmLote(anyList())).thenAnswer(i -> i.getArgument(0));
+
+            // Act
+            var resultado = mensagemService.registrarMensagens(Arrays.asList(mensagemInvalida, mensagemValida));
+
+            // Assert
+            assertThat(resultado.getRegistradas()).isEqualTo(1);
+            assertThat(resultado.getRejeitadas()).isEqualTo(1);
+            assertThat(resultado.getItens().get(0).getSituacao()).isEqualTo(ResultadoLote.Situacao.REJEITADA);
+            assertThat(resultado.getItens().get(0).getErros()).containsExactly("usuário não pode estar vazio");
+            assertThat(resultado.getItens().get(1).getSituacao()).isEqualTo(ResultadoLote.Situacao.REGISTRADA);
+            verify(mensagemRepository, times(1)).inserirEmLote(Arrays.asList(mensagemValida));
+        }
+
+        @Test
+        void deveRejeitarMensagemNula() {
+            // Arrange
+            var mensagemValida = gerarMensagem();
+            when(mensagemRepository.inserirEmLote(anyList())).thenAnswer(i -> i.getArgument(0));
+
+            // Act
+            var resultado = mensagemService.registrarMensagens(Arrays.asList(null, mensagemValida));
+
+            // Assert
+            assertThat(resultado.getTotal()).isEqualTo(2);
+            assertThat(resultado.getRegistradas()).isEqualTo(1);
+            assertThat(resultado.getRejeitadas()).isEqualTo(1);
+            assertThat(resultado.getItens().get(0).getSituacao()).isEqualTo(ResultadoLote.Situacao.REJEITADA);
+            assertThat(resultado.getItens().get(0).getErros()).containsExactly("a mensagem não pode ser nula");
+            assertThat(resultado.getItens().get(1).getSituacao()).isEqualTo(ResultadoLote.Situacao.REGISTRADA);
+            verify(mensagemRepository, times(1)).inserirEmLote(Arrays.asList(mensagemValida));
+        }
+
+        @Test
+        void naoDeveAcessarRepositorio_QuandoNenhumaMensagemValida() {
+            var resultado = mensagemService.registrarMensagens(Arrays.asList(new Mensagem()));
+
+            assertThat(resultado.getRegistradas()).isZero();
+            assertThat(resultado.getItens().get(0).getErros()).hasSize(2);
+            verify(mensagemRepository, never()).inserirEmLote(anyList());
+            verify(timeline, never()).registrar(anyList());
         }
     }
 
@@ -73,25 +208,25 @@ class MensagemServiceTest {
             var id = UUID.fromString("7ed5adbc-9597-423a-9918-16aa1c79a8a9");
             var mensagem = gerarMensagem();
             mensagem.setId(id);
-            when(mensagemRepository.findById(any(UUID.class)))
+            when(mensagemRepository.buscarMensagem(any(UUID.class)))
                     .thenReturn(Optional.of(mensagem));
             // Act
             var mensagemObtida = mensagemService.buscarMensagem(id);
 
             //Assert
             assertThat(mensagemObtida).isEqualTo(mensagem);
-            verify(mensagemRepository, times(1)).findById(any(UUID.class));
+            verify(mensagemRepository, times(1)).buscarMensagem(any(UUID.class));
         }
 
         @Test
         void deveGerarExcecao_QuandoBuscarMensagem_IdNaoExiste() {
             // Arrange
             var id = UUID.fromString("1c5f5969-1d19-49b7-8dc3-bc6cff9e95b7");
-            when(mensagemRepository.findById(any(UUID.class)))
+            when(mensagemRepository.buscarMensagem(any(UUID.class)))
                     .thenReturn(Optional.empty());
             //Assert
             assertThatThrownBy(() -> mensagemService.buscarMensagem(id)).isInstanceOf(MensagemNotFoundException.class).hasMessage("Mensagem não encontrada");
-            verify(mensagemRepository, times(1)).findById(any(UUID.class));
+            verify(mensagemRepository, times(1)).buscarMensagem(any(UUID.class));
         }
     }
 
@@ -110,8 +245,8 @@ class MensagemServiceTest {
             mensagemNova.setUsuario(mensagemAntiga.getUsuario());
             mensagemNova.setConteudo("ABCD 123456465465465654654");
 
-            when(mensagemRepository.findById(any(UUID.class))).thenReturn(Optional.of(mensagemAntiga));
-            when(mensagemRepository.save(any(Mensagem.class))).thenAnswer(i -> i.getArgument(0));
+            var mensagemAlterada = mensagemAntiga.toBuilder().conteudo(mensagemNova.getConteudo()).versao(1L).build();
+            when(mensagemRepository.alterarConteudo(id, mensagemNova.getConteudo(), null)).thenReturn(Optional.of(mensagemAlterada));
 
             // Act
             var mensagemObtida = mensagemService.alterarMensagem(id, mensagemNova);
@@ -121,40 +256,96 @@ class MensagemServiceTest {
             assertThat(mensagemObtida.getId()).isEqualTo(mensagemNova.getId());
             assertThat(mensagemObtida.getUsuario()).isEqualTo(mensagemNova.getUsuario());
             assertThat(mensagemObtida.getConteudo()).isEqualTo(mensagemNova.getConteudo());
-            verify(mensagemRepository, times(1)).findById(any(UUID.class));
-            verify(mensagemRepository, times(1)).save(any(Mensagem.class));
+            verify(mensagemRepository, times(1)).alterarConteudo(any(UUID.class), anyString(), any());
+            verify(mensagemRepository, never()).existsById(any(UUID.class));
+            verify(timeline, times(1)).alterar(mensagemAlterada);
+        }
+
+        @Test
+        void deveGerarExcecao_QuandoAlterarMensagem_VersaoDesatualizada() {
+            // Arrange
+            var id = UUID.randomUUID();
+            var mensagemNova = gerarMensagem().toBuilder().id(id).conteudo("ABC 123").versao(1L).build();
+            when(mensagemRepository.alterarConteudo(id, "ABC 123", List.of(EstadoDaMensagem.daVersao(1L)))).thenReturn(Optional.empty());
+            when(mensagemRepository.existsById(id)).thenReturn(true);
+
+            // Act & Assert
+            assertThatThrownBy(() -> mensagemService.alterarMensagem(id, mensagemNova))
+                    .isInstanceOf(MensagemDesatualizadaException.class)
+                    .hasMessage("A mensagem foi alterada desde a versão informada");
+            verify(timeline, never()).alterar(any(Mensagem.class));
+        }
+
+        @Test
+        void deveAlterarMensagemApenasNosEstadosAceitos_QuandoEstadosInformados() {
+            // Arrange
+            var id = UUID.randomUUID();
+            var mensagemNova = gerarMensagem().toBuilder().id(id).conteudo("ABC 123").versao(7L).build();
+            var estadosAceitos = List.of(new EstadoDaMensagem(1, 0), new EstadoDaMensagem(1, 2));
+            var mensagemAlterada = mensagemNova.toBuilder().versao(2L).gostei(2).build();
+            when(mensagemRepository.alterarConteudo(id, "ABC 123", estadosAceitos)).thenReturn(Optional.of(mensagemAlterada));
+
+            // Act
+            var mensagemObtida = mensagemService.alterarMensagem(id, mensagemNova, estadosAceitos);
 
+            // Assert
+            assertThat(mensagemObtida).isEqualTo(mensagemAlterada);
+            verify(timeline).alterar(mensagemAlterada);
         }
 
         @Test
         void deveGerarExcecao_QuandoAlterarMensagem_IdNaoExiste() {
             // Arrange
             var id = UUID.fromString("caef7ed9-a628-4112-849f-07f9318e0301");
-            var mensagem = gerarMensagem();
-            when(mensagemRepository.findById(any(UUID.class))).thenReturn(Optional.empty());
+            var mensagem = gerarMensagem().toBuilder().id(id).build();
+            when(mensagemRepository.alterarConteudo(any(UUID.class), anyString(), any())).thenReturn(Optional.empty());
+            when(mensagemRepository.existsById(id)).thenReturn(false);
+
+            // Act & Assert
+            assertThatThrownBy(() -> mensagemService.alterarMensagem(id, mensagem)).isInstanceOf(MensagemNotFoundException.class).hasMessage("Mensagem não encontrada");
+            verify(mensagemRepository, times(1)).alterarConteudo(any(UUID.class), anyString(), any());
+        }
+
+        @Test
+        void deveGerarExcecao_QuandoAlterarMensagem_IdNaoExisteEIdDaMensagemNovaApresentaValorDiferente() {
+            // Arrange
+            var id = UUID.fromString("caef7ed9-a628-4112-849f-07f9318e0301");
+            when(mensagemRepository.existsById(id)).thenReturn(false);
+
             // Act & Assert
             assertThatThrownBy(() -> mensagemService.alterarMensagem(id, gerarMensagem())).isInstanceOf(MensagemNotFoundException.class).hasMessage("Mensagem não encontrada");
-            verify(mensagemRepository, times(1)).findById(any(UUID.class));
-            verify(mensagemRepository, never()).save(any(Mensagem.class));
+            verify(mensagemRepository, never()).alterarConteudo(any(UUID.class), anyString(), any());
         }
 
         @Test
         void deveGerarExcecao_QuandoAlterarMensagem_IdDaMensagemNovaApresentaValorDiferente() {
             // Arrange
             var id = UUID.fromString("4c2ee106-56d2-4ce2-ab78-06aff14494b1");
-            var mensagemAntiga = gerarMensagem();
-            mensagemAntiga.setId(id);
 
             var mensagemNova = gerarMensagem();
             mensagemNova.setId(UUID.fromString("a8035997-6b1e-4b7f-9e5d-89a40b661cb9"));
             mensagemNova.setConteudo("ABC 123");
 
-            when(mensagemRepository.findById(id)).thenReturn(Optional.of(mensagemAntiga));
+            when(mensagemRepository.existsById(id)).thenReturn(true);
 
             // Act & Assert
             assertThatThrownBy(() -> mensagemService.alterarMensagem(id, mensagemNova)).isInstanceOf(MensagemNotFoundException.class).hasMessage("Mensagem atualizada não apresenta o ID correto");
-            verify(mensagemRepository, times(1)).findById(any(UUID.class));
-            verify(mensagemRepository, never()).save(any(Mensagem.class));
+            verify(mensagemRepository, times(1)).existsById(id);
+            verify(mensagemRepository, never()).alterarConteudo(any(UUID.class), anyString(), any());
+        }
+
+        @Test
+        void deveGerarExcecao_QuandoAlterarMensagem_ConteudoVazio() {
+            // Arrange
+            var id = UUID.randomUUID();
+            var mensagemNova = gerarMensagem().toBuilder().id(id).conteudo("").build();
+            when(mensagemRepository.existsById(id)).thenReturn(true);
+
+            // Act & Assert
+            assertThatThrownBy(() -> mensagemService.alterarMensagem(id, mensagemNova))
+                    .isInstanceOf(ConstraintViolationException.class)
+                    .hasMessageContaining("o conteúdo não pode estar vazio");
+            verify(mensagemRepository, never()).alterarConteudo(any(UUID.class), any(), any());
         }
     }
 
@@ -164,30 +355,45 @@ class MensagemServiceTest {
         void devePermitirRemoverMensagem() {
             // Arrange
             var id = UUID.fromString("fa77fa5c-1c8f-471e-a96d-ff7b3086e94e");
-            var mensagem = gerarMensagem();
-            mensagem.setId(id);
-            when(mensagemRepository.findById(id)).thenReturn(Optional.of(mensagem));
-            doNothing().when(mensagemRepository).deleteById(id);
+            when(mensagemRepository.remover(id)).thenReturn(1);
 
             // Act
             var mensagemFoiRemovida = mensagemService.removerMensagem(id);
 
             // Assert
             assertThat(mensagemFoiRemovida).isTrue();
-            verify(mensagemRepository, times(1)).findById(any(UUID.class));
-            verify(mensagemRepository, times(1)).deleteById(any(UUID.class));
+            verify(mensagemRepository, times(1)).remover(any(UUID.class));
+            verify(mensagemRepository, never()).findById(any(UUID.class));
+            verify(mensagemRepository, never()).listarMensagens(any(Pageable.class));
+            verify(timeline, times(1)).remover(id);
         }
 
         @Test
         void deveGerarExcecao_QuandoRemoverMensagem_IdNaoExiste() {
             // Arrange
             var id = UUID.fromString("3fc6b75c-df89-427f-830b-4cbd516a0003");
-            when(mensagemRepository.findById(id)).thenReturn(Optional.empty());
+            when(mensagemRepository.remover(id)).thenReturn(0);
 
             // Act & Assert
             assertThatThrownBy(() -> mensagemService.removerMensagem(id)).isInstanceOf(MensagemNotFoundException.class).hasMessage("Mensagem não encontrada");
-            verify(mensagemRepository, times(1)).findById(any(UUID.class));
-            verify(mensagemRepository, never()).deleteById(any(UUID.class));
+            verify(mensagemRepository, times(1)).remover(any(UUID.class));
+            verify(timeline, never()).remover(any(UUID.class));
+        }
+    }
+
+    @Nested
+    class RegistrarGostei {
+        @Test
+        void deveAcumularGosteiSemAcessarBanco() {
+            // Arrange
+            var id = UUID.randomUUID();
+
+            // Act
+            mensagemService.registrarGostei(id);
+
+            // Assert
+            verify(contadorDeGostei, times(1)).incrementar(id);
+            verifyNoInteractions(mensagemRepository);
         }
     }
 
@@ -209,6 +415,209 @@ class MensagemServiceTest {
             });
             verify(mensagemRepository, times(1)).listarMensagens(any(Pageable.class));
         }
+
+        @Test
+        void devePermitirListarMensagens_QuandoPaginaEstaEmMemoria() {
+            // Arrange
+            Page<Mensagem> listaDeMensagens = new PageImpl<>(Arrays.asList(gerarMensagem(), gerarMensagem()));
+            when(timeline.obterPagina(any(Pageable.class))).thenReturn(Optional.of(listaDeMensagens));
+
+            // Act
+            var resultadoObtido = mensagemService.listarMensagens(PageRequest.of(0, 10));
+
+            // Assert
+            assertThat(resultadoObtido).isSameAs(listaDeMensagens);
+            verify(mensagemRepository, never()).listarMensagens(any(Pageable.class));
+        }
+
+        @Test
+        void devePermitirListarMensagensSemTotal() {
+            // Arrange
+            var pageable = PageRequest.of(0, 2);
+            Slice<Mensagem> mensagens = new SliceImpl<>(Arrays.asList(gerarMensagem(), gerarMensagem()), pageable, true);
+            when(timeline.obterPagina(any(Pageable.class))).thenReturn(Optional.empty());
+            when(mensagemRepository.listarMensagensSemTotal(pageable)).thenReturn(mensagens);
+
+            // Act
+            var resultadoObtido = mensagemService.listarMensagensSemTotal(pageable);
+
+            // Assert
+            assertThat(resultadoObtido).isSameAs(mensagens);
+            verify(mensagemRepository, never()).listarMensagens(any(Pageable.class));
+            verify(mensagemRepository, never()).count();
+        }
+
+        @Test
+        void devePermitirListarMensagensSemTotal_QuandoPaginaEstaEmMemoria() {
+            // Arrange
+            var pageable = PageRequest.of(0, 2);
+            Page<Mensagem> pagina = new PageImpl<>(Arrays.asList(gerarMensagem(), gerarMensagem()), pageable, 5);
+            when(timeline.obterPagina(pageable)).thenReturn(Optional.of(pagina));
+
+            // Act
+            var resultadoObtido = mensagemService.listarMensagensSemTotal(pageable);
+
+            // Assert
+            assertThat(resultadoObtido.getContent()).containsExactlyElementsOf(pagina.getContent());
+            assertThat(resultadoObtido.hasNext()).isTrue();
+            verify(mensagemRepository, never()).listarMensagensSemTotal(any(Pageable.class));
+        }
+    }
+
+    @Nested
+    class BuscarMensagens {
+        @Test
+        void devePermitirBuscarMensagens() {
+            // Arrange
+            Page<Mensagem> mensagens = new PageImpl<>(Arrays.asList(gerarMensagem()));
+            when(mensagemRepository.buscarMensagens(anyString(), any(Pageable.class))).thenReturn(mensagens);
+
+            // Act
+            var resultadoObtido = mensagemService.buscarMensagens("  conteúdo ", PageRequest.of(0, 10));
+
+            // Assert
+            assertThat(resultadoObtido).isSameAs(mensagens);
+            verify(mensagemRepository, times(1)).buscarMensagens("conteúdo", PageRequest.of(0, 10));
+        }
+
+        @Test
+        void deveGerarExcecao_QuandoTermoDeBuscaVazio() {
+            // Act & Assert
+            assertThatThrownBy(() -> mensagemService.buscarMensagens(" ", PageRequest.of(0, 10)))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("O termo de busca não pode estar vazio");
+            verify(mensagemRepository, never()).buscarMensagens(anyString(), any(Pageable.class));
+        }
+    }
+
+    @Nested
+    class ExportarMensagens {
+        @Test
+        void devePermitirExportarMensagens() {
+            // Arrange
+            var mensagem = gerarMensagem();
+            doAnswer(i -> {
+                Consumer<Mensagem> consumidor = i.getArgument(0);
+                consumidor.accept(mensagem);
+                return null;
+            }).when(mensagemRepository).percorrerMensagens(any());
+            var mensagensExportadas = new ArrayList<Mensagem>();
+
+            // Act
+            mensagemService.exportarMensagens(mensagensExportadas::add);
+
+            // Assert
+            assertThat(mensagensExportadas).containsExactly(mensagem);
+            verify(mensagemRepository, times(1)).percorrerMensagens(any());
+            verify(mensagemRepository, never()).findAll();
+        }
+    }
+
+    @Nested
+    class ListarMensagensPorCursor {
+        @Test
+        void devePermitirListarMensagens_PrimeiraPagina() {
+            // Arrange
+            var mensagem1 = gerarMensagem();
+            mensagem1.setId(UUID.fromString("1cefa737-2120-4291-8e14-465c42bffec3"));
+            var mensagem2 = gerarMensagem();
+            mensagem2.setId(UUID.fromString("f1c62001-68ae-441e-a90c-800b3583374d"));
+            var mensagem3 = gerarMensagem();
+            mensagem3.setId(UUID.fromString("6e64c398-0cc2-4ac6-b1f2-fca8176d3aea"));
+            when(mensagemRepository.listarMensagensRecentes(any(Pageable.class)))
+                    .thenReturn(Arrays.asList(mensagem1, mensagem2, mensagem3));
+
+            // Act
+            var resultadoObtido = mensagemService.listarMensagens(null, 2);
+
+            // Assert
+            assertThat(resultadoObtido.getContent()).containsExactly(mensagem1, mensagem2);
+            assertThat(resultadoObtido.isFirst()).isTrue();
+            assertThat(resultadoObtido.isLast()).isFalse();
+            assertThat(MensagemCursor.decodificar(resultadoObtido.getNextCursor())).isEqualTo(MensagemCursor.de(mensagem2));
+            verify(mensagemRepository, times(1)).listarMensagensRecentes(Pageable.ofSize(3));
+            verify(mensagemRepository, never()).listarMensagens(any(Pageable.class));
+        }
+
+        @Test
+        void devePermitirListarMensagens_APartirDoCursor() {
+            // Arrange
+            var anterior = gerarMensagem();
+            anterior.setId(UUID.fromString("af87b174-0343-48fd-9069-46ca2e3df9e7"));
+            var cursor = MensagemCursor.de(anterior);
+            var mensagem = gerarMensagem();
+            when(mensagemRepository.listarMensagensAnteriores(any(Date.class), any(UUID.class), any(Pageable.class)))
+                    .thenReturn(Arrays.asList(mensagem));
+
+            // Act
+            var resultadoObtido = mensagemService.listarMensagens(cursor, 2);
+
+            // Assert
+            assertThat(resultadoObtido.getContent()).containsExactly(mensagem);
+            assertThat(resultadoObtido.isFirst()).isFalse();
+            assertThat(resultadoObtido.isLast()).isTrue();
+            assertThat(resultadoObtido.getNextCursor()).isNull();
+            verify(mensagemRepository, times(1))
+                    .listarMensagensAnteriores(cursor.getDataCriacaoComoDate(), anterior.getId(), Pageable.ofSize(3));
+        }
+
+        @Test
+        void deveGerarExcecao_QuandoListarMensagens_TamanhoInvalido() {
+            assertThatThrownBy(() -> mensagemService.listarMensagens(null, 0))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("O tamanho da página deve ser maior que zero");
+            verify(mensagemRepository, never()).listarMensagensRecentes(any(Pageable.class));
+        }
+    }
+
+    @Nested
+    class ListarMensagensDoUsuario {
+        @Test
+        void devePermitirListarMensagensDoUsuario_PrimeiraPagina() {
+            // Arrange
+            var mensagem = gerarMensagem();
+            mensagem.setId(UUID.randomUUID());
+            when(mensagemRepository.listarMensagensRecentesDoUsuario(anyString(), any(Pageable.class)))
+                    .thenReturn(Arrays.asList(mensagem));
+
+            // Act
+            var resultadoObtido = mensagemService.listarMensagensDoUsuario("Jose", null, 2);
+
+            // Assert
+            assertThat(resultadoObtido.getContent()).containsExactly(mensagem);
+            assertThat(resultadoObtido.isFirst()).isTrue();
+            assertThat(resultadoObtido.isLast()).isTrue();
+            verify(mensagemRepository, times(1)).listarMensagensRecentesDoUsuario("Jose", Pageable.ofSize(3));
+            verify(mensagemRepository, never()).listarMensagensRecentes(any(Pageable.class));
+        }
+
+        @Test
+        void devePermitirListarMensagensDoUsuario_APartirDoCursor() {
+            // Arrange
+            var anterior = gerarMensagem();
+            anterior.setId(UUID.fromString("af87b174-0343-48fd-9069-46ca2e3df9e7"));
+            var cursor = MensagemCursor.de(anterior);
+            when(mensagemRepository.listarMensagensAnterioresDoUsuario(anyString(), any(Date.class), any(UUID.class), any(Pageable.class)))
+                    .thenReturn(Arrays.asList(gerarMensagem(), gerarMensagem(), gerarMensagem()));
+
+            // Act
+            var resultadoObtido = mensagemService.listarMensagensDoUsuario("Jose", cursor, 2);
+
+            // Assert
+            assertThat(resultadoObtido.getContent()).hasSize(2);
+            assertThat(resultadoObtido.isFirst()).isFalse();
+            assertThat(resultadoObtido.isLast()).isFalse();
+            verify(mensagemRepository, times(1))
+                    .listarMensagensAnterioresDoUsuario("Jose", cursor.getDataCriacaoComoDate(), anterior.getId(), Pageable.ofSize(3));
+        }
+
+        @Test
+        void deveGerarExcecao_QuandoListarMensagensDoUsuario_TamanhoInvalido() {
+            assertThatThrownBy(() -> mensagemService.listarMensagensDoUsuario("Jose", null, 0))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("O tamanho da página deve ser maior que zero");
+            verify(mensagemRepository, never()).listarMensagensRecentesDoUsuario(anyString(), any(Pageable.class));
+        }
     }
 
 }
@@ -0,0 +1,326 @@
+package br.com.fiap.api.service;
+
+import br.com.fiap.api.model.Mensagem;
+import br.com.fiap.api.model.ResumoDasMensagens;
+import br.com.fiap.api.repository.MensagemRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static br.com.fiap.api.util.MensagemHelper.gerarMensagem;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class MensagemTimelineTest {
+
+    private static final Instant AGORA = Instant.parse("2023-07-01T00:00:00Z");
+
+    private MensagemTimeline timeline;
+    @Mock
+    private MensagemRepository mensagemRepository;
+
+    AutoCloseable mock;
+
+    @BeforeEach
+    void setup() {
+        mock = MockitoAnnotations.openMocks(this);
+        when(mensagemRepository.resumirMensagens()).thenReturn(new ResumoDasMensagens(0, 0, 0));
+        timeline = new MensagemTimeline(mensagemRepository, 4, Duration.ofSeconds(30), Clock.fixed(AGORA, ZoneOffset.UTC));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        mock.close();
+    }
+
+    @Nested
+    class ObterPagina {
+        @Test
+        void deveCarregarMensagensRecentesUmaUnicaVez() {
+            // Arrange
+            var mensagens = gerarMensagens(6);
+            when(mensagemRepository.listarMensagensRecentes(any(Pageable.class))).thenReturn(mensagens.subList(0, 4));
+            when(mensagemRepository.resumirMensagens()).thenReturn(new ResumoDasMensagens(6, 0, 0));
+
+            // Act
+            var primeiraPagina = timeline.obterPagina(PageRequest.of(0, 2));
+            var segundaPagina = timeline.obterPagina(PageRequest.of(1, 2));
+
+            // Assert
+            assertThat(primeiraPagina).hasValueSatisfying(pagina -> {
+                assertThat(pagina.getContent()).containsExactlyElementsOf(mensagens.subList(0, 2));
+                assertThat(pagina.getTotalElements()).isEqualTo(6);
+                assertThat(pagina.getTotalPages()).isEqualTo(3);
+            });
+            assertThat(segundaPagina).hasValueSatisfying(pagina ->
+                    assertThat(pagina.getContent()).containsExactlyElementsOf(mensagens.subList(2, 4)));
+            verify(mensagemRepository, times(1)).listarMensagensRecentes(PageRequest.of(0, 4));
+            verify(mensagemRepository, times(1)).resumirMensagens();
+        }
+
+        @Test
+        void naoDeveObterPagina_QuandoPaginaUltrapassaMensagensEmMemoria() {
+            // Arrange
+            var mensagens = gerarMensagens(6);
+            when(mensagemRepository.listarMensagensRecentes(any(Pageable.class))).thenReturn(mensagens.subList(0, 4));
+            when(mensagemRepository.resumirMensagens()).thenReturn(new ResumoDasMensagens(6, 0, 0));
+
+            // Act & Assert
+            assertThat(timeline.obterPagina(PageRequest.of(2, 2))).isEmpty();
+            assertThat(timeline.obterPagina(PageRequest.of(0, 10))).isEmpty();
+            assertThat(timeline.obterPagina(Pageable.unpaged())).isEmpty();
+        }
+
+        @Test
+        void deveObterPagina_QuandoTodasAsMensagensEstaoEmMemoria() {
+            // Arrange
+            var mensagens = gerarMensagens(3);
+            when(mensagemRepository.listarMensagensRecentes(any(Pageable.class))).thenReturn(mensagens);
+            when(mensagemRepository.resumirMensagens()).thenReturn(new ResumoDasMensagens(3, 0, 0));
+
+            // Act
+            var pagina = timeline.obterPagina(PageRequest.of(0, 10));
+
+            // Assert
+            assertThat(pagina).hasValueSatisfying(resultado -> {
+                assertThat(resultado.getContent()).containsExactlyElementsOf(mensagens);
+                assertThat(resultado.isLast()).isTrue();
+            });
+        }
+
+        @Test
+        void deveRecarregarMensagens_QuandoValidadeExpirar() {
+            // Arrange
+            var clock = mock(Clock.class);
+            when(clock.instant()).thenReturn(AGORA, AGORA.plusSeconds(31));
+            timeline = new MensagemTimeline(mensagemRepository, 4, Duration.ofSeconds(30), clock);
+            when(mensagemRepository.listarMensagensRecentes(any(Pageable.class))).thenReturn(gerarMensagens(2));
+            when(mensagemRepository.resumirMensagens()).thenReturn(new ResumoDasMensagens(2, 0, 0));
+
+            // Act
+            timeline.obterPagina(PageRequest.of(0, 2));
+            timeline.obterPagina(PageRequest.of(0, 2));
+
+            // Assert
+            verify(mensagemRepository, times(2)).listarMensagensRecentes(any(Pageable.class));
+        }
+    }
+
+    @Nested
+    class AtualizarMensagens {
+        @Test
+        void deveIncluirMensagemRegistradaNoInicio() {
+            // Arrange
+            var mensagens = gerarMensagens(4);
+            when(mensagemRepository.listarMensagensRecentes(any(Pageable.class))).thenReturn(mensagens);
+            when(mensagemRepository.resumirMensagens()).thenReturn(new ResumoDasMensagens(10, 0, 0));
+            timeline.obterPagina(PageRequest.of(0, 2));
+            var novaMensagem = gerarMensagemEm(AGORA.plusSeconds(60));
+
+            // Act
+            timeline.registrar(novaMensagem);
+
+            // Assert
+            assertThat(timeline.obterPagina(PageRequest.of(0, 4))).hasValueSatisfying(pagina -> {
+                assertThat(pagina.getContent()).containsExactly(novaMensagem, mensagens.get(0), mensagens.get(1), mensagens.get(2));
+                assertThat(pagina.getTotalElements()).isEqualTo(11);
+            });
+            verify(mensagemRepository, times(1)).listarMensagensRecentes(any(Pageable.class));
+        }
+
+        @Test
+        void deveIncluirLoteRegistradoSemRecarregar() {
+            // Arrange
+            var mensagens = gerarMensagens(4);
+            when(mensagemRepository.listarMensagensRecentes(any(Pageable.class))).thenReturn(mensagens);
+            when(mensagemRepository.resumirMensagens()).thenReturn(new ResumoDasMensagens(10, 0, 0));
+            timeline.obterPagina(PageRequest.of(0, 2));
+            var maisNova = gerarMensagemEm(AGORA.plusSeconds(60));
+            var antiga = gerarMensagemEm(AGORA.minusSeconds(3600));
+            var nova = gerarMensagemEm(AGORA.plusSeconds(30));
+
+            // Act
+            timeline.registrar(List.of(antiga, maisNova, nova));
+
+            // Assert
+            assertThat(timeline.obterPagina(PageRequest.of(0, 4))).hasValueSatisfying(pagina -> {
+                assertThat(pagina.getContent()).containsExactly(maisNova, nova, mensagens.get(0), mensagens.get(1));
+                assertThat(pagina.getTotalElements()).isEqualTo(13);
+            });
+            verify(mensagemRepository, times(1)).listarMensagensRecentes(any(Pageable.class));
+            verify(mensagemRepository, times(1)).resumirMensagens();
+        }
+
+        @Test
+        void deveSubstituirMensagemAlterada() {
+            // Arrange
+            var mensagens = gerarMensagens(4);
+            when(mensagemRepository.listarMensagensRecentes(any(Pageable.class))).thenReturn(mensagens);
+            when(mensagemRepository.resumirMensagens()).thenReturn(new ResumoDasMensagens(4, 0, 0));
+            timeline.obterPagina(PageRequest.of(0, 2));
+            var mensagemAlterada = mensagens.get(1).toBuilder().conteudo("conteúdo alterado").build();
+
+            // Act
+            timeline.alterar(mensagemAlterada);
+
+            // Assert
+            assertThat(timeline.obterPagina(PageRequest.of(0, 2))).hasValueSatisfying(pagina ->
+                    assertThat(pagina.getContent().get(1).getConteudo()).isEqualTo("conteúdo alterado"));
+        }
+
+        @Test
+        void deveSomarGosteiNaMensagemEmMemoria() {
+            // Arrange
+            var mensagens = gerarMensagens(4);
+            when(mensagemRepository.listarMensagensRecentes(any(Pageable.class))).thenReturn(mensagens);
+            when(mensagemRepository.resumirMensagens()).thenReturn(new ResumoDasMensagens(4, 0, 0));
+            timeline.obterPagina(PageRequest.of(0, 2));
+
+            // Act
+            timeline.adicionarGostei(mensagens.get(0).getId(), 3);
+
+            // Assert
+            assertThat(timeline.obterPagina(PageRequest.of(0, 2))).hasValueSatisfying(pagina ->
+                    assertThat(pagina.getContent().get(0).getGostei()).isEqualTo(mensagens.get(0).getGostei() + 3));
+        }
+
+        @Test
+        void deveExcluirMensagemRemovida() {
+            // Arrange
+            var mensagens = gerarMensagens(4);
+            when(mensagemRepository.listarMensagensRecentes(any(Pageable.class))).thenReturn(mensagens);
+            when(mensagemRepository.resumirMensagens()).thenReturn(new ResumoDasMensagens(4, 0, 0));
+            timeline.obterPagina(PageRequest.of(0, 2));
+
+            // Act
+            timeline.remover(mensagens.get(0).getId());
+
+            // Assert
+            assertThat(timeline.obterPagina(PageRequest.of(0, 4))).hasValueSatisfying(pagina -> {
+                assertThat(pagina.getContent()).containsExactlyElementsOf(mensagens.subList(1, 4));
+                assertThat(pagina.getTotalElements()).isEqualTo(3);
+            });
+        }
+
+        @Test
+        void deveRecarregarMensagens_QuandoRestaremPoucasMensagensEmMemoria() {
+            // Arrange
+            var mensagens = gerarMensagens(4);
+            when(mensagemRepository.listarMensagensRecentes(any(Pageable.class))).thenReturn(mensagens);
+            when(mensagemRepository.resumirMensagens()).thenReturn(new ResumoDasMensagens(10, 0, 0));
+            timeline.obterPagina(PageRequest.of(0, 2));
+
+            // Act
+            timeline.remover(mensagens.get(0).getId());
+            timeline.remover(mensagens.get(1).getId());
+            timeline.remover(mensagens.get(2).getId());
+            timeline.obterPagina(PageRequest.of(0, 1));
+
+            // Assert
+            verify(mensagemRepository, times(2)).listarMensagensRecentes(any(Pageable.class));
+        }
+    }
+
+    @Nested
+    class Versao {
+        @Test
+        void deveManterVersao_QuandoNaoHouverEscritas() {
+            // Arrange
+            when(mensagemRepository.listarMensagensRecentes(any(Pageable.class))).thenReturn(gerarMensagens(2));
+            var versao = timeline.versao();
+
+            // Act
+            timeline.obterPagina(PageRequest.of(0, 2));
+
+            // Assert
+            assertThat(timeline.versao()).isEqualTo(versao);
+        }
+
+        @Test
+        void deveAlterarVersao_QuandoHouverEscrita() {
+            // Arrange
+            var versao = timeline.versao();
+
+            // Act
+            timeline.adicionarGostei(UUID.randomUUID(), 1);
+
+            // Assert
+            assertThat(timeline.versao()).isNotEqualTo(versao);
+        }
+
+        @Test
+        void deveManterVersao_QuandoValidadeExpirarSemAlteracoesNoBanco() {
+            // Arrange
+            var clock = mock(Clock.class);
+            when(clock.instant()).thenReturn(AGORA, AGORA.plusSeconds(31));
+            when(mensagemRepository.listarMensagensRecentes(any(Pageable.class))).thenReturn(gerarMensagens(2));
+            when(mensagemRepository.resumirMensagens()).thenReturn(new ResumoDasMensagens(2, 3, 5));
+            timeline = new MensagemTimeline(mensagemRepository, 4, Duration.ofSeconds(30), clock);
+
+            // Act
+            var versao = timeline.versao();
+
+            // Assert
+            assertThat(timeline.versao()).isEqualTo(versao);
+            verify(mensagemRepository, times(2)).resumirMensagens();
+        }
+
+        @Test
+        void deveAlterarVersao_QuandoValidadeExpirarComAlteracoesNoBanco() {
+            // Arrange
+            var clock = mock(Clock.class);
+            when(clock.instant()).thenReturn(AGORA, AGORA.plusSeconds(31));
+            when(mensagemRepository.resumirMensagens())
+                    .thenReturn(new ResumoDasMensagens(2, 3, 5), new ResumoDasMensagens(2, 3, 6));
+            timeline = new MensagemTimeline(mensagemRepository, 4, Duration.ofSeconds(30), clock);
+
+            // Act
+            var versao = timeline.versao();
+
+            // Assert
+            assertThat(timeline.versao()).isNotEqualTo(versao);
+        }
+
+        @Test
+        void deveGerarMesmaVersao_QuandoOutraInstanciaCarregarMesmoEstado() {
+            // Arrange
+            var mensagens = gerarMensagens(3);
+            when(mensagemRepository.listarMensagensRecentes(any(Pageable.class))).thenReturn(mensagens);
+            when(mensagemRepository.resumirMensagens()).thenReturn(new ResumoDasMensagens(3, 0, 0));
+            var outraInstancia = new MensagemTimeline(mensagemRepository, 4, Duration.ofSeconds(30), Clock.fixed(AGORA, ZoneOffset.UTC));
+
+            // Act & Assert
+            assertThat(outraInstancia.versao()).isEqualTo(timeline.versao());
+        }
+    }
+
+    private static List<Mensagem> gerarMensagens(int quantidade) {
+        var mensagens = new ArrayList<Mensagem>();
+        for (int i = 0; i < quantidade; i++) {
+            mensagens.add(gerarMensagemEm(AGORA.minusSeconds(i)));
+        }
+        return mensagens;
+    }
+
+    private static Mensagem gerarMensagemEm(Instant dataCriacao) {
+        return gerarMensagem().toBuilder()
+                .id(UUID.randomUUID())
+                .dataCriacao(Date.from(dataCriacao))
+                .build();
+    }
+}
@@ -0,0 +1,77 @@
+package br.com.fiap.api.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UuidV7Test {
+
+    @Test
+    void deveGerarUuidVersao7() {
+        var uuid = UuidV7.gerar();
+
+        assertThat(uuid.version()).isEqualTo(7);
+        assertThat(uuid.variant()).isEqualTo(2);
+        assertThat(UUID.fromString(uuid.toString())).isEqualTo(uuid);
+    }
+
+    @Test
+    void deveCodificarTimestampNosPrimeiros48Bits() {
+        var epochMillis = System.currentTimeMillis();
+
+        var uuid = new UuidV7().proximo(epochMillis);
+
+        assertThat(uuid.getMostSignificantBits() >>> 16).isEqualTo(epochMillis);
+    }
+
+    @Test
+    void deveGerarUuidsCrescentes_QuandoGeradosNoMesmoMilissegundo() {
+        var gerador = new UuidV7();
+        var epochMillis = System.currentTimeMillis();
+        var uuids = new ArrayList<UUID>();
+        for (int i = 0; i < 10_000; i++) {
+            uuids.add(gerador.proximo(epochMillis));
+        }
+
+        var ordenados = new ArrayList<>(uuids);
+        ordenados.sort(UuidV7.ORDEM_DO_BANCO);
+        assertThat(uuids).containsExactlyElementsOf(ordenados).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void deveGerarUuidsUnicos_QuandoGeradosConcorrentemente() throws Exception {
+        var uuids = ConcurrentHashMap.<UUID>newKeySet();
+        var executor = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            executor.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    uuids.add(UuidV7.gerar());
+                }
+            });
+        }
+        executor.shutdown();
+
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(uuids).hasSize(80_000);
+    }
+
+    @Test
+    void deveOrdenarComoBancoDeDados() {
+        var menor = UUID.fromString("7fffffff-ffff-7fff-bfff-ffffffffffff");
+        var maior = UUID.fromString("80000000-0000-7000-8000-000000000000");
+        List<UUID> uuids = new ArrayList<>(List.of(maior, menor));
+
+        Collections.sort(uuids, UuidV7.ORDEM_DO_BANCO);
+
+        assertThat(uuids).containsExactly(menor, maior);
+        assertThat(maior.compareTo(menor)).isNegative();
+    }
+}